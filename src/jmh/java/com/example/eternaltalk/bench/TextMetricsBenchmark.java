@@ -0,0 +1,104 @@
+package com.example.eternaltalk.bench;
+
+import com.example.eternaltalk.common.TextMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TextMetrics vs 기존 구현(ChatService.countCharacters / VoiceService.isValidKoreanUnderLimit).
+ * ./gradlew jmh -Pjmh.includes=TextMetrics
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextMetricsBenchmark {
+
+    @Param({"korean", "mixed", "emoji"})
+    public String kind;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = switch (kind) {
+            case "korean" -> "보고 싶어요 오늘도 많이 생각났어요 밥은 잘 먹고 있어요";
+            case "mixed" -> "안녕 hello 오늘 weather 진짜 좋다 let's go 산책 2km";
+            default -> "사랑해 ❤️😊🎉 보고싶어 😢😢 🙏✨ 고마워요 🇰🇷";
+        };
+    }
+
+    // ---- 공백 제외 글자수 ----
+
+    @Benchmark
+    public int countLegacy() { return legacyCountCharacters(text); }
+
+    @Benchmark
+    public int countTextMetrics() { return TextMetrics.countNonWhitespace(text); }
+
+    // ---- 한글 15자 검증 ----
+
+    @Benchmark
+    public boolean koreanLegacy() { return legacyIsValidKoreanUnderLimit(text, 15); }
+
+    @Benchmark
+    public boolean koreanTextMetrics() { return TextMetrics.isKoreanWithin(text, 15); }
+
+    // ---- 전체 지표: 기존 방식은 규칙별로 따로 순회 ----
+
+    @Benchmark
+    public int allLegacy() {
+        int chars = legacyCountCharacters(text);
+        boolean voice = legacyIsValidKoreanUnderLimit(text, 15);
+        boolean video = text.trim().length() > 0 && text.trim().length() <= 15;
+        return chars + (voice ? 1 : 0) + (video ? 2 : 0);
+    }
+
+    @Benchmark
+    public int allTextMetrics() {
+        TextMetrics.Metrics m = TextMetrics.measure(text);
+        return m.nonWhitespace() + (m.isKoreanWithin(15) ? 3 : 0);
+    }
+
+    // ---- 기존 구현 사본 (비교용) ----
+
+    static int legacyCountCharacters(String text) {
+        if (text == null) return 0;
+        int i = 0, n = text.length(), c = 0;
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp)) continue;
+            c++;
+        }
+        return c;
+    }
+
+    static boolean legacyIsValidKoreanUnderLimit(String input, int limit) {
+        if (input == null) return false;
+        int count = 0, i = 0, n = input.length();
+        while (i < n) {
+            int cp = input.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp)) continue;
+            if (legacyIsEmoji(cp)) continue;
+            Character.UnicodeBlock b = Character.UnicodeBlock.of(cp);
+            if (b == Character.UnicodeBlock.HANGUL_SYLLABLES
+                    || b == Character.UnicodeBlock.HANGUL_JAMO
+                    || b == Character.UnicodeBlock.HANGUL_COMPATIBILITY_JAMO
+                    || b == Character.UnicodeBlock.HANGUL_JAMO_EXTENDED_A
+                    || b == Character.UnicodeBlock.HANGUL_JAMO_EXTENDED_B) {
+                count++;
+                if (count > limit) return false;
+            }
+        }
+        return count >= 1 && count <= limit;
+    }
+
+    static boolean legacyIsEmoji(int cp) {
+        return (cp >= 0x1F300 && cp <= 0x1FAFF)
+                || (cp >= 0x2600 && cp <= 0x27BF)
+                || (cp >= 0xFE00 && cp <= 0xFE0F)
+                || (cp >= 0x1F1E6 && cp <= 0x1F1FF);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.eternaltalk.bench;
+
+import com.example.eternaltalk.client.OpenAiClient;
+import com.example.eternaltalk.client.codec.JsonCodec;
+import com.example.eternaltalk.client.http.VendorHttpClients;
+import com.example.eternaltalk.client.http.VendorHttpProperties;
+import com.example.eternaltalk.client.resilience.VendorBreakerProperties;
+import com.example.eternaltalk.client.resilience.VendorBreakers;
+import com.example.eternaltalk.client.resilience.VendorLimiterProperties;
+import com.example.eternaltalk.client.resilience.VendorLimiters;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.Plan;
+import com.example.eternaltalk.domain.User;
+import com.example.eternaltalk.repository.ChatMessageRepository;
+import com.example.eternaltalk.repository.ChatUsageDailyRepository;
+import com.example.eternaltalk.repository.MemoryProfileRepository;
+import com.example.eternaltalk.repository.UserRepository;
+import com.example.eternaltalk.repository.UsageJournalCheckpointRepository;
+import com.example.eternaltalk.service.ChatService;
+import com.example.eternaltalk.service.chat.ConversationHistory;
+import com.example.eternaltalk.service.chat.PromptCache;
+import com.example.eternaltalk.service.chat.QuotaLedger;
+import com.example.eternaltalk.service.chat.ReplyCache;
+import com.example.eternaltalk.service.chat.UsageJournal;
+import com.example.eternaltalk.service.entitlement.EntitlementProperties;
+import com.example.eternaltalk.service.entitlement.EntitlementService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+
+/**
+ * 동시 채팅 전송: 플랫폼 스레드(Tomcat 기본 200) vs 가상 스레드 호출자가 ChatService.send 를 실제 배선으로 실행.
+ * - 실제: ChatService, JpaExecutor, QuotaLedger(스트라이프 락), UsageJournal(flush 락, 1초 주기 flush),
+ *   EntitlementService/PromptCache(Caffeine + CacheLoads), ReplyCache, ConversationHistory,
+ *   OpenAiClient(한도/서킷 + 응답 디코딩)
+ * - 스텁: 리포지토리/JdbcTemplate 은 커넥션 풀(10개) 세마포어 안에서 DB 지연, OpenAI 는 ExchangeFunction 이
+ *   vendorLatencyMs 뒤 고정 응답 (요청 본문 직렬화는 커넥터가 하므로 제외)
+ * users=1 은 한 사용자의 락 경합, users=1000 은 첫 반복에서 캐시 미스 적재가 섞인다.
+ * 가상 스레드 모드는 Java 21 필요: ./gradlew jmh -PjavaVersion=21 -Pjmh.includes=ThreadModel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThreadModelBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000"})
+    public int sends;
+
+    @Param({"1", "1000"})
+    public int users;
+
+    @Param({"40"})
+    public int vendorLatencyMs;
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int DB_POOL_SIZE = 10;
+    private static final int DB_LATENCY_MS = 1;
+    private static final String REPLY_JSON =
+            "{\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"오늘도 고마워요.\"}}]}";
+
+    private final Semaphore dbPool = new Semaphore(DB_POOL_SIZE, true);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private JpaExecutor jpa;
+    private VendorHttpClients http;
+    private UsageJournal journal;
+    private ConversationHistory history;
+    private ChatService chat;
+
+    @Setup
+    public void setup() throws Exception {
+        executor = mode.equals("platform")
+                ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+                : newVirtualThreadPerTaskExecutor();
+
+        TransactionTemplate tx = new TransactionTemplate(new NoOpTransactionManager());
+        JdbcTemplate jdbc = new StubJdbcTemplate();
+        jpa = new JpaExecutor(tx, DB_POOL_SIZE, sends * 4);
+
+        journal = new UsageJournal(jdbc, tx,
+                repository(UsageJournalCheckpointRepository.class, (name, args) -> switch (name) {
+                    case "findById" -> Optional.empty();
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(name);
+                }),
+                Files.createTempDirectory("usage-journal-bench").toString(), false);
+        lifecycle(journal, "start");
+        QuotaLedger quota = new QuotaLedger(
+                repository(ChatUsageDailyRepository.class, (name, args) -> Optional.empty()), journal, 30_000);
+
+        history = new ConversationHistory(
+                repository(ChatMessageRepository.class, (name, args) -> List.of()), jdbc, registry,
+                10, 10_000, 200, 10_000);
+        MemoryProfileRepository profiles = repository(MemoryProfileRepository.class, (name, args) -> Optional.empty());
+        UserRepository userRepository = repository(UserRepository.class, (name, args) -> switch (name) {
+            case "findByEmail" -> Optional.of(userOf((String) args[0]));
+            case "findById" -> Optional.of(User.builder().id((Long) args[0]).plan(Plan.GOLD).build());
+            default -> throw new UnsupportedOperationException(name);
+        });
+        EntitlementService entitlements = new EntitlementService(userRepository, new EntitlementProperties(
+                Map.of(Plan.GOLD, new EntitlementProperties.Limits(Integer.MAX_VALUE / 2, null, null, null)),
+                null, null));
+
+        // 벤더 한도는 넉넉히: 거절(503)이 아니라 스레드 모델 차이를 본다
+        VendorLimiterProperties.Limits limits = new VendorLimiterProperties.Limits(
+                sends, 2, sends, sends, Duration.ofSeconds(30), Duration.ofSeconds(10), 0.9);
+        http = new VendorHttpClients(WebClient.builder().exchangeFunction(openAiStub()),
+                new VendorHttpProperties(null, null));
+        OpenAiClient openAi = new OpenAiClient("bench", new JsonCodec(new ObjectMapper()), http,
+                new VendorLimiters(new VendorLimiterProperties(limits, null), registry),
+                new VendorBreakers(new VendorBreakerProperties(null, null), registry));
+
+        chat = new ChatService(userRepository, profiles, quota, openAi, history, entitlements,
+                new PromptCache(profiles, 16 * 1024 * 1024, Duration.ofMinutes(5)),
+                new ReplyCache(registry, false, 20, 3, Duration.ofHours(6), 50_000),
+                jpa);
+
+        // @Scheduled flush 대신 (fixedDelay 1초)
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(() -> {
+            journal.flush();
+            history.flush();
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        lifecycle(journal, "shutdown");
+        history.flush();
+        lifecycle(jpa, "shutdown");
+        lifecycle(http, "shutdown");
+    }
+
+    @Benchmark
+    public int concurrentSends() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(sends);
+        for (int i = 0; i < sends; i++) {
+            String email = "user-" + (i % users) + "@bench";
+            // 요청 스레드가 응답까지 기다리는 모델 (DB 구간은 JPA 풀, 벤더 대기는 논블로킹)
+            futures.add(executor.submit(() -> chat.send(email, "잘 지냈어요? 보고 싶어요").block() != null ? 1 : 0));
+        }
+        int ok = 0;
+        for (Future<Integer> f : futures) ok += f.get();
+        return ok;
+    }
+
+    // ---- 스텁 ----
+
+    private static User userOf(String email) {
+        long id = Long.parseLong(email.substring("user-".length(), email.indexOf('@')));
+        return User.builder().id(id).email(email).plan(Plan.GOLD).build();
+    }
+
+    private ExchangeFunction openAiStub() {
+        ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+        return request -> Mono.delay(Duration.ofMillis(vendorLatencyMs))
+                .map(t -> ClientResponse.create(HttpStatus.OK, strategies)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(REPLY_JSON)
+                        .build());
+    }
+
+    /** 모든 호출이 커넥션 하나를 DB_LATENCY_MS 동안 잡는 리포지토리 */
+    @SuppressWarnings("unchecked")
+    private <R> R repository(Class<R> type, BiFunction<String, Object[], Object> answer) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "toString" -> type.getSimpleName() + "Stub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> {
+                        db();
+                        yield answer.apply(method.getName(), args);
+                    }
+                });
+    }
+
+    private void db() {
+        dbPool.acquireUninterruptibly();
+        try {
+            Thread.sleep(DB_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            dbPool.release();
+        }
+    }
+
+    /** UsageJournal / ConversationHistory 의 배치 쓰기 */
+    private final class StubJdbcTemplate extends JdbcTemplate {
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            db();
+            return new int[0][];
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            db();
+            return 1;
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) { return new SimpleTransactionStatus(); }
+        @Override
+        public void commit(TransactionStatus status) {}
+        @Override
+        public void rollback(TransactionStatus status) {}
+    }
+
+    /** @PostConstruct/@PreDestroy 메서드는 패키지 전용이라 리플렉션으로 */
+    private static void lifecycle(Object bean, String name) throws Exception {
+        Method m = bean.getClass().getDeclaredMethod(name);
+        m.setAccessible(true);
+        m.invoke(bean);
+    }
+
+    /** Java 17 툴체인에서도 컴파일되도록 리플렉션으로 생성 */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("가상 스레드는 Java 21 이상 필요 (-PjavaVersion=21)", e);
+        }
+    }
+}
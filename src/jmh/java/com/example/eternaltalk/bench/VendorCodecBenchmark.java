@@ -0,0 +1,124 @@
+package com.example.eternaltalk.bench;
+
+import com.example.eternaltalk.client.codec.ElevenLabsPayloads;
+import com.example.eternaltalk.client.codec.HeygenPayloads;
+import com.example.eternaltalk.client.codec.JsonCodec;
+import com.example.eternaltalk.client.codec.JsonPayload;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벤더 JSON: 기존 문자열 조립/Map 직렬화 vs client.codec (스트리밍 생성기·파서 + Netty 풀 버퍼).
+ * 기존 경로는 WebClient 인코더가 하던 것처럼 byte[] → DataBuffer 복사까지 포함.
+ * ./gradlew jmh -Pjmh.includes=VendorCodec  (할당량은 -prof gc 로 비교)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VendorCodecBenchmark {
+
+    @Param({"short", "long"})
+    public String size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodec codec = new JsonCodec(objectMapper);
+    private final NettyDataBufferFactory buffers = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    private String text;
+    private byte[] statusJson;
+
+    @Setup
+    public void setup() {
+        String line = "보고 싶어요. 오늘은 \"날씨\"가 참 좋네요 \\ 산책 갈래요?\n";
+        text = "short".equals(size) ? line : line.repeat(40);
+        statusJson = ("{\"code\":100,\"data\":{\"id\":\"v-123\",\"status\":\"completed\",\"error\":null,"
+                + "\"thumbnail_url\":\"https://files.heygen.ai/t.jpg\",\"duration\":12.5,"
+                + "\"video_url\":\"https://files.heygen.ai/v.mp4?Expires=1&Signature=" + "x".repeat(200) + "\","
+                + "\"caption_url\":null},\"message\":\"Success\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ---- ElevenLabs TTS 요청 본문 ----
+
+    @Benchmark
+    public int ttsLegacy() {
+        String payload = """
+        {
+          "text": "%s",
+          "voice_settings": { "stability": 0.5, "similarity_boost": 0.75 },
+          "output_format": "mp3_44100_128"
+        }
+        """.formatted(text.replace("\\", "\\\\").replace("\"", "\\\""));
+        return copyAndRelease(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public int ttsCodec() {
+        return writeAndRelease(new ElevenLabsPayloads.TtsRequest(text,
+                ElevenLabsPayloads.VoiceSettings.DEFAULT, "mp3_44100_128"));
+    }
+
+    // ---- HeyGen 생성 요청 본문 ----
+
+    @Benchmark
+    public int heygenRequestLegacy() throws Exception {
+        Map<String, Object> payload = Map.of(
+                "title", "EternalTalk",
+                "image_url", "https://bucket.s3.amazonaws.com/photos/1/a.jpg",
+                "voice", Map.of("type", "audio", "audio_url", "https://bucket.s3.amazonaws.com/tts/b.mp3"),
+                "dimension", Map.of("width", 1280, "height", 720));
+        return copyAndRelease(objectMapper.writeValueAsBytes(payload));
+    }
+
+    @Benchmark
+    public int heygenRequestCodec() {
+        return writeAndRelease(new HeygenPayloads.AvatarIVRequest("EternalTalk",
+                "https://bucket.s3.amazonaws.com/photos/1/a.jpg",
+                "https://bucket.s3.amazonaws.com/tts/b.mp3", 1280, 720));
+    }
+
+    // ---- HeyGen 상태 응답 ----
+
+    @Benchmark
+    public Object heygenStatusLegacy() throws Exception {
+        Map<String, Object> resp = objectMapper.readValue(statusJson, new TypeReference<Map<String, Object>>() {});
+        Map<?, ?> data = (Map<?, ?>) resp.get("data");
+        Object url = data.get("video_url") != null ? data.get("video_url") : data.get("url");
+        return new HeygenPayloads.VideoStatus(String.valueOf(data.get("status")), String.valueOf(url));
+    }
+
+    @Benchmark
+    public Object heygenStatusCodec() {
+        DataBuffer buffer = buffers.allocateBuffer(statusJson.length).write(statusJson);
+        try {
+            return codec.read(buffer, HeygenPayloads.STATUS);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    // ---- Helpers ----
+
+    private int copyAndRelease(byte[] bytes) {
+        DataBuffer buffer = buffers.allocateBuffer(bytes.length).write(bytes);
+        int n = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return n;
+    }
+
+    private int writeAndRelease(JsonPayload payload) {
+        DataBuffer buffer = buffers.allocateBuffer(512);
+        codec.write(payload, buffer);
+        int n = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return n;
+    }
+}
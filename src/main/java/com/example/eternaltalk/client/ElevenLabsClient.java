@@ -1,99 +1,115 @@
 package com.example.eternaltalk.client;
 
+import com.example.eternaltalk.client.codec.ElevenLabsPayloads;
+import com.example.eternaltalk.client.codec.ElevenLabsPayloads.TtsRequest;
+import com.example.eternaltalk.client.codec.ElevenLabsPayloads.VoiceSettings;
+import com.example.eternaltalk.client.codec.JsonCodec;
+import com.example.eternaltalk.client.http.VendorHttpClients;
+import com.example.eternaltalk.client.resilience.AdaptiveLimiter;
+import com.example.eternaltalk.client.resilience.Deadline;
+import com.example.eternaltalk.client.resilience.VendorLimiters;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.*;
+import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Component
 public class ElevenLabsClient {
 
+    private static final String VENDOR = "elevenlabs";
+
+    private static final String OUTPUT_FORMAT = "mp3_44100_128";
+    private static final int SAMPLE_CHUNK_SIZE = 64 * 1024;
+
     private final WebClient web;
+    private final JsonCodec json;
+    private final AdaptiveLimiter limiter;
 
-    public ElevenLabsClient(@Value("${ELEVENLABS_API_KEY}") String apiKey) {
-        this.web = WebClient.builder()
-                .baseUrl("https://api.elevenlabs.io")
+    public ElevenLabsClient(@Value("${ELEVENLABS_API_KEY}") String apiKey, JsonCodec json,
+                            VendorHttpClients http, VendorLimiters limiters) {
+        this.json = json;
+        this.limiter = limiters.of(VENDOR);
+        this.web = http.builder(VENDOR, "https://api.elevenlabs.io")
                 .defaultHeader("xi-api-key", apiKey) // ✅ ElevenLabs는 Bearer가 아니라 이 헤더
                 .build();
     }
 
-    // 텍스트 → 음성 (mp3 바이트)
-    public byte[] tts(String voiceId, String text){
-        String payload = """
-        {
-          "text": "%s",
-          "voice_settings": { "stability": 0.5, "similarity_boost": 0.75 },
-          "output_format": "mp3_44100_128"
-        }
-        """.formatted(text.replace("\\","\\\\").replace("\"","\\\""));
+    /** 기본 voice_settings / output_format 으로 만든 TTS 요청 (TTS 캐시 키도 이 값으로 계산) */
+    public static TtsRequest ttsRequest(String text) {
+        return new TtsRequest(text, VoiceSettings.DEFAULT, OUTPUT_FORMAT);
+    }
 
-        return web.post()
-                .uri("/v1/text-to-speech/{voiceId}", voiceId)
+    /**
+     * 텍스트 → 음성 (/stream). 도착하는 mp3 청크를 maxBytes 까지 버퍼 하나로 모은다. 블로킹 없음.
+     * 동시성 허가는 벤더 응답을 다 받으면 반환되므로 이후의 저장(S3 업로드)은 허가를 잡지 않는다.
+     * 반환된 DataBuffer 는 구독자가 release 해야 한다. maxBytes 를 넘으면 DataBufferLimitException.
+     */
+    public Mono<DataBuffer> tts(String voiceId, TtsRequest payload, int maxBytes){
+        return limiter.run(Deadline.bound(DataBufferUtils.join(web.post()
+                .uri("/v1/text-to-speech/{voiceId}/stream", voiceId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.valueOf("audio/mpeg"))
-                .bodyValue(payload)
+                .body(json.body(payload))
                 .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError, r -> r.bodyToMono(String.class)
-                        .flatMap(b -> Mono.error(new IllegalArgumentException("TTS 요청 실패: " + b))))
-                .onStatus(HttpStatusCode::is5xxServerError, r -> r.bodyToMono(String.class)
-                        .flatMap(b -> Mono.error(new RuntimeException("TTS 서버 오류: " + b))))
-                .bodyToMono(byte[].class)
-                .block();
+                .onStatus(HttpStatusCode::is4xxClientError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "TTS 요청 실패: " + b))))
+                .onStatus(HttpStatusCode::is5xxServerError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "TTS 서버 오류: " + b))))
+                .bodyToFlux(DataBuffer.class), maxBytes)));
     }
 
     /**
-     * 샘플 업로드: 새 보이스 생성 → voice_id 반환
+     * 샘플 업로드: 항상 새 보이스 생성 → voice_id 반환 (교체 시 이전 보이스는 deleteVoice)
+     * 샘플은 스트림에서 64KB 씩 읽어 멀티파트 본문으로 바로 보낸다 (전체를 힙에 올리지 않음).
      * ⚠️ ElevenLabs는 멀티파트 필드명이 반드시 "files" (복수형) 이어야 함.
      */
-    public String createOrUpdateVoice(Long userId, byte[] sample, String filename){
-        // 파일 파트(파일명 보존용 ByteArrayResource)
-        ByteArrayResource fileResource = new ByteArrayResource(sample) {
-            @Override public String getFilename() {
-                return (filename != null && !filename.isBlank()) ? filename : "sample.mp3";
-            }
-        };
-
-        // 파일 파트 전용 헤더 (Content-Disposition에 name=files, filename 지정)
-        HttpHeaders fileHeaders = new HttpHeaders();
-        fileHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM); // 또는 MediaType.valueOf("audio/mpeg")
-        ContentDisposition cd = ContentDisposition
-                .formData()
-                .name("files") // ✅ 핵심: 필드명은 files
-                .filename(fileResource.getFilename())
-                .build();
-        fileHeaders.setContentDisposition(cd);
-
-        HttpEntity<ByteArrayResource> filePart = new HttpEntity<>(fileResource, fileHeaders);
-
-        // 멀티파트 바디 구성
-        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
-        form.add("files", filePart);                    // ✅ 반드시 "files"
-        form.add("name", "user-" + userId);            // 옵션: 보이스 이름
-
-        return web.post()
+    public Mono<String> createVoice(Long userId, InputStreamSource sample, long size, String filename){
+        return limiter.run(Deadline.bound(web.post()
                 .uri("/v1/voices/add")
                 .contentType(MediaType.MULTIPART_FORM_DATA)
-                .body(BodyInserters.fromMultipartData(form))
+                .body(BodyInserters.fromMultipartData(voiceForm(userId, sample, size, filename)))
                 .retrieve()
-                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class)
-                        .flatMap(b -> Mono.error(new IllegalArgumentException("보이스 업로드 실패: " + b))))
-                .bodyToMono(VoiceCreateResponse.class)
-                .map(resp -> {
-                    if (resp == null || resp.voice_id == null || resp.voice_id.isBlank()) {
-                        throw new IllegalArgumentException("보이스 업로드 실패: 응답에 voice_id 없음");
-                    }
-                    return resp.voice_id;
-                })
-                .block();
+                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "보이스 업로드 실패: " + b))))
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> json.decode(body, ElevenLabsPayloads.VOICE_ID))
+                .filter(voiceId -> !voiceId.isBlank())
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("보이스 업로드 실패: 응답에 voice_id 없음")))));
     }
 
-    // ElevenLabs /v1/voices/add 응답의 핵심 필드만 매핑
-    public static final class VoiceCreateResponse {
-        public String voice_id;
+    /** 보이스 삭제. 이미 없으면(404) 성공으로 본다 */
+    public Mono<Void> deleteVoice(String voiceId){
+        return limiter.run(Deadline.bound(web.delete()
+                .uri("/v1/voices/{voiceId}", voiceId)
+                .retrieve()
+                .onStatus(status -> status.isError() && status.value() != 404, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "보이스 삭제 실패: " + b))))
+                .toBodilessEntity()
+                .then()));
+    }
+
+    /** /v1/voices/add 멀티파트 본문. 파일 파트는 구독 시점에 스트림을 열어 boundedElastic 에서 청크로 읽는다 */
+    public static MultiValueMap<String, HttpEntity<?>> voiceForm(Long userId, InputStreamSource sample, long size, String filename){
+        Flux<DataBuffer> chunks = DataBufferUtils.readInputStream(sample::getInputStream,
+                        DefaultDataBufferFactory.sharedInstance, SAMPLE_CHUNK_SIZE)
+                .subscribeOn(Schedulers.boundedElastic()); // InputStream 읽기는 블로킹
+
+        MultipartBodyBuilder form = new MultipartBodyBuilder();
+        form.asyncPart("files", chunks, DataBuffer.class)          // ✅ 반드시 "files"
+                .filename((filename != null && !filename.isBlank()) ? filename : "sample.mp3")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)     // 또는 MediaType.valueOf("audio/mpeg")
+                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(size));
+        form.part("name", "user-" + userId);                        // 옵션: 보이스 이름
+        return form.build();
     }
 }
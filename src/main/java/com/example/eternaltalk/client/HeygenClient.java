@@ -1,24 +1,50 @@
 package com.example.eternaltalk.client;
 
+import com.example.eternaltalk.client.codec.HeygenPayloads;
+import com.example.eternaltalk.client.codec.HeygenPayloads.AvatarIVRequest;
+import com.example.eternaltalk.client.codec.JsonCodec;
+import com.example.eternaltalk.client.http.VendorHttpClients;
+import com.example.eternaltalk.client.resilience.AdaptiveLimiter;
+import com.example.eternaltalk.client.resilience.Deadline;
+import com.example.eternaltalk.client.resilience.LatencyTracker;
+import com.example.eternaltalk.client.resilience.VendorLimiters;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.time.Duration;
+import java.util.NoSuchElementException;
 
 @Component
 public class HeygenClient {
 
-    private final WebClient api;
+    private static final String VENDOR = "heygen";
 
-    public HeygenClient(@Value("${HEYGEN_API_KEY}") String apiKey) {
-        this.api = WebClient.builder()
-                .baseUrl("https://api.heygen.com")
+    private final WebClient api;
+    private final JsonCodec json;
+    private final AdaptiveLimiter limiter;
+    private final LatencyTracker statusLatency = new LatencyTracker(256);
+    private final boolean hedgeEnabled;
+    private final Duration hedgeMinDelay;
+    private final Duration hedgeMaxDelay;
+
+    public HeygenClient(@Value("${HEYGEN_API_KEY}") String apiKey, JsonCodec json,
+                        VendorHttpClients http, VendorLimiters limiters,
+                        @Value("${heygen.status-hedge.enabled:true}") boolean hedgeEnabled,
+                        @Value("${heygen.status-hedge.min-delay:200ms}") Duration hedgeMinDelay,
+                        @Value("${heygen.status-hedge.max-delay:2s}") Duration hedgeMaxDelay) {
+        this.json = json;
+        this.limiter = limiters.of(VENDOR);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedgeMaxDelay = hedgeMaxDelay;
+        this.api = http.builder(VENDOR, "https://api.heygen.com")
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader("X-Api-Key", apiKey)
                 .build();
@@ -26,85 +52,68 @@ public class HeygenClient {
 
     /**
      * 사진 1장(image_url) + 오디오(audio_url)로 토킹헤드 생성.
-     * 성공 시 HeyGen의 video_id 반환.
+     * 성공 시 HeyGen의 video_id 반환. 블로킹 없음.
      */
-    public String createAvatarIVVideo(String imageUrl, String audioUrl, Integer width, Integer height, String title) {
-        Map<String, Object> payload = Map.of(
-                "title", title != null ? title : "EternalTalk",
-                "image_url", imageUrl,
-                "voice", Map.of(
-                        "type", "audio",
-                        "audio_url", audioUrl
-                ),
-                "dimension", Map.of(
-                        "width",  width != null ? width  : 1280,
-                        "height", height != null ? height : 720
-                )
-        );
-
-        Map<String, Object> resp = api.post()
+    public Mono<String> createAvatarIVVideo(String imageUrl, String audioUrl, Integer width, Integer height, String title) {
+        AvatarIVRequest payload = new AvatarIVRequest(
+                title != null ? title : "EternalTalk",
+                imageUrl,
+                audioUrl,
+                width != null ? width : 1280,
+                height != null ? height : 720);
+
+        return limiter.run(Deadline.bound(api.post()
                 .uri("/v2/video/av4/generate")
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(payload)
+                .body(json.body(payload))
                 .retrieve()
-                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class)
-                        .flatMap(b -> Mono.error(new RuntimeException("HeyGen av4 generate 실패: " + b))))
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                .block();
+                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "HeyGen av4 generate 실패: " + b))))
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> json.decode(body, HeygenPayloads.VIDEO_ID))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("HeyGen 응답에 video_id 없음")))));
+    }
 
-        // 응답은 { "data": { "video_id": "..." }, ... } 혹은 { "video_id": "..." } 형태가 올 수 있음
-        Object data = resp != null ? resp.get("data") : null;
-        Object videoId = null;
+    /**
+     * v1/video_status.get 으로 현재 상태 및 완성된 비디오 URL 조회. 블로킹 없음.
+     * 조회는 멱등이므로 헤지: 첫 시도가 최근 p95 지연을 넘기면 두 번째 요청을 보내 먼저 온 응답을 쓴다.
+     */
+    public Mono<Status> getVideoStatus(String videoId) {
+        if (!hedgeEnabled) return statusOnce(videoId);
+        Duration delay = clamp(statusLatency.percentile(0.95, hedgeMaxDelay));
+        return Mono.firstWithValue(statusOnce(videoId), Mono.delay(delay).then(statusOnce(videoId)))
+                // 둘 다 실패하면 첫 실패 원인을 그대로 전달
+                .onErrorMap(NoSuchElementException.class,
+                        e -> e.getCause() != null ? Exceptions.unwrapMultiple(e.getCause()).get(0) : e);
+    }
 
-        if (data instanceof Map) {
-            videoId = ((Map<?, ?>) data).get("video_id");
-        }
-        if (videoId == null) { // 혹시 data 없이 바로 내려오는 경우 대비
-            videoId = resp != null ? resp.get("video_id") : null;
-        }
+    public record Status(String status, String videoUrl) {}
 
-        if (videoId == null) {
-            throw new IllegalStateException("HeyGen 응답에 video_id 없음: " + resp);
-        }
-        return videoId.toString();
+    // ---- Helpers ----
+
+    private Mono<Status> statusOnce(String videoId) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return fetchStatus(videoId).doOnSuccess(s -> statusLatency.record(System.nanoTime() - start));
+        });
     }
 
-    /** v1/video_status.get 으로 현재 상태 및 완성된 비디오 URL 조회 */
-    public Status getVideoStatus(String videoId) {
-        Map<String, Object> resp = api.get()
+    private Mono<Status> fetchStatus(String videoId) {
+        return limiter.run(Deadline.bound(api.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/v1/video_status.get")
                         .queryParam("video_id", videoId)
                         .build())
                 .retrieve()
-                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class)
-                        .flatMap(b -> Mono.error(new RuntimeException("HeyGen status 조회 실패: " + b))))
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                .block();
-
-        String status = null;
-        String videoUrl = null;
-
-        if (resp != null) {
-            Object data = resp.get("data");
-            if (data instanceof Map<?, ?> m) {
-                Object st = m.get("status");
-                if (st != null) status = st.toString();
-
-                // 문서/환경에 따라 "video_url" 또는 "url" 로 올 수 있으니 둘 다 케이스 처리
-                Object vu = (m.get("video_url") != null) ? m.get("video_url") : m.get("url");
-                if (vu != null) videoUrl = vu.toString();
-            } else {
-                // 혹시 최상위에 바로 오는 경우
-                Object st = resp.get("status");
-                if (st != null) status = st.toString();
-                Object vu = (resp.get("video_url") != null) ? resp.get("video_url") : resp.get("url");
-                if (vu != null) videoUrl = vu.toString();
-            }
-        }
-
-        return new Status(status, videoUrl);
+                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "HeyGen status 조회 실패: " + b))))
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> json.decode(body, HeygenPayloads.STATUS))
+                .map(s -> new Status(s.status(), s.videoUrl()))));
     }
 
-    public record Status(String status, String videoUrl) {}
+    private Duration clamp(Duration d) {
+        if (d.compareTo(hedgeMinDelay) < 0) return hedgeMinDelay;
+        return d.compareTo(hedgeMaxDelay) > 0 ? hedgeMaxDelay : d;
+    }
 }
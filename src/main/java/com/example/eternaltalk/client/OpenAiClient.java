@@ -1,65 +1,105 @@
 // src/main/java/com/example/eternaltalk/client/OpenAiClient.java
 package com.example.eternaltalk.client;
 
+import com.example.eternaltalk.client.codec.JsonCodec;
+import com.example.eternaltalk.client.codec.OpenAiPayloads;
+import com.example.eternaltalk.client.codec.OpenAiPayloads.ChatRequest;
+import com.example.eternaltalk.client.http.VendorHttpClients;
+import com.example.eternaltalk.client.resilience.AdaptiveLimiter;
+import com.example.eternaltalk.client.resilience.CircuitBreaker;
+import com.example.eternaltalk.client.resilience.Deadline;
+import com.example.eternaltalk.client.resilience.VendorBreakers;
+import com.example.eternaltalk.client.resilience.VendorLimiters;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.*;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Component
 public class OpenAiClient {
 
+    private static final String VENDOR = "openai";
+
     private final WebClient web;
+    private final JsonCodec json;
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
 
-    public OpenAiClient(@Value("${OPENAI_API_KEY}") String apiKey) {
-        this.web = WebClient.builder()
-                .baseUrl("https://api.openai.com/v1")
+    public OpenAiClient(@Value("${OPENAI_API_KEY}") String apiKey, JsonCodec json,
+                        VendorHttpClients http, VendorLimiters limiters, VendorBreakers breakers) {
+        this.web = http.builder(VENDOR, "https://api.openai.com/v1")
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
                 .build();
+        this.json = json;
+        this.limiter = limiters.of(VENDOR);
+        this.breaker = breakers.of(VENDOR);
     }
 
-    /** Chat Completions 호출. system + user 메시지 → reply 텍스트 반환 */
-    public String chat(String model, String systemPrompt, String userText) {
-        String body = """
-        {
-          "model": "%s",
-          "messages": [
-            {"role": "system", "content": %s},
-            {"role": "user", "content": %s}
-          ]
-        }
-        """.formatted(
-                escape(model),
-                toJsonString(systemPrompt),
-                toJsonString(userText)
-        );
+    /**
+     * Chat Completions 호출. system + 이전 대화(history) + user 메시지 → reply 텍스트 반환
+     * systemPrompt 는 JSON 문자열 내용으로 이미 이스케이프된 UTF-8 바이트(따옴표 없음) → 본문에 그대로 복사
+     * 블로킹 없음: 구독 시점에 호출된다. 서킷이 열려 있으면 즉시 CircuitOpenException.
+     */
+    public Mono<String> chat(String model, byte[] systemPrompt, List<OpenAiMessage> history, String userText) {
+        return guarded(Deadline.bound(web.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.body(new ChatRequest(model, false, systemPrompt, history, userText)))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "OpenAI 호출 실패: " + b))))
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> json.decode(body, OpenAiPayloads.CHAT_CONTENT))
+                .defaultIfEmpty("")));
+    }
 
-        return web.post()
+    /**
+     * Chat Completions 스트리밍 호출(stream: true).
+     * 업스트림 SSE 청크의 delta.content 만 순서대로 흘려보낸다. 블로킹 없음.
+     */
+    public Flux<String> chatStream(String model, byte[] systemPrompt, List<OpenAiMessage> history, String userText) {
+        return guarded(Deadline.boundFirst(web.post()
                 .uri("/chat/completions")
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(body)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .body(json.body(new ChatRequest(model, true, systemPrompt, history, userText)))
                 .retrieve()
-                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class)
-                        .flatMap(b -> Mono.error(new IllegalArgumentException("OpenAI 호출 실패: " + b))))
-                .bodyToMono(OpenAiChatResponse.class)
-                .map(resp -> {
-                    if (resp.choices() == null || resp.choices().length == 0
-                            || resp.choices()[0].message() == null) return "";
-                    return resp.choices()[0].message().content();
-                })
-                .block();
+                .onStatus(HttpStatusCode::isError, r -> r.bodyToMono(String.class).defaultIfEmpty("")
+                        .flatMap(b -> Mono.error(new VendorException(VENDOR, r.statusCode().value(), "OpenAI 호출 실패: " + b))))
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .map(ServerSentEvent::data)
+                .takeWhile(data -> !"[DONE]".equals(data)) // 스트림 종료 마커
+                .concatMap(data -> Mono.justOrEmpty(deltaOf(data)))));
     }
 
-    // ---- 응답 모델 ----
-    public record OpenAiChatResponse(OpenAiChoice[] choices) {}
-    public record OpenAiChoice(OpenAiMessage message) {}
+    /** 대화 메시지 (요청 본문은 client.codec.OpenAiPayloads 에서 직렬화) */
     public record OpenAiMessage(String role, String content) {}
 
     // ---- Helpers ----
-    private static String escape(String s){ return s.replace("\\","\\\\").replace("\"","\\\""); }
-    private static String toJsonString(String s){
-        if (s == null) s = "";
-        return "\"" + escape(s).replace("\n","\\n") + "\"";
+    /** 서킷(열려 있으면 동시성 한도도 쓰지 않고 즉시 실패) → 동시성 한도 → 마감 내 호출 */
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return breaker.run(limiter.run(call));
+    }
+
+    private <T> Flux<T> guarded(Flux<T> call) {
+        return breaker.run(limiter.run(call));
+    }
+
+    /** 청크 JSON → delta 텍스트. role 만 있는 첫 청크 / 빈 청크는 null */
+    private String deltaOf(String data) {
+        if (data == null || data.isBlank()) return null;
+        try {
+            String content = json.parse(data, OpenAiPayloads.STREAM_DELTA);
+            return (content == null || content.isEmpty()) ? null : content;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("OpenAI 스트림 파싱 실패: " + data, e);
+        }
     }
 }
@@ -0,0 +1,26 @@
+package com.example.eternaltalk.client;
+
+/**
+ * 외부 벤더(OpenAI/ElevenLabs/HeyGen)가 오류 응답을 준 경우.
+ * status 는 벤더 HTTP 상태 코드. 429/5xx 는 벤더 과부하로 보고 동시성 한도를 줄인다.
+ */
+public class VendorException extends RuntimeException {
+
+    private final String vendor;
+    private final int status;
+
+    public VendorException(String vendor, int status, String message) {
+        super(message);
+        this.vendor = vendor;
+        this.status = status;
+    }
+
+    public String getVendor() { return vendor; }
+
+    public int getStatus() { return status; }
+
+    /** 벤더 측 과부하/장애 (요청 자체의 문제가 아님) */
+    public boolean isOverload() {
+        return status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.eternaltalk.client.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/** ElevenLabs TTS / 보이스 생성 요청·응답 */
+public final class ElevenLabsPayloads {
+
+    private ElevenLabsPayloads() {}
+
+    public record VoiceSettings(double stability, double similarityBoost) {
+        public static final VoiceSettings DEFAULT = new VoiceSettings(0.5, 0.75);
+    }
+
+    /** POST /v1/text-to-speech/{voiceId} 본문 */
+    public record TtsRequest(String text, VoiceSettings voiceSettings, String outputFormat) implements JsonPayload {
+        @Override
+        public void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            g.writeStringField("text", text);
+            g.writeObjectFieldStart("voice_settings");
+            g.writeNumberField("stability", voiceSettings.stability());
+            g.writeNumberField("similarity_boost", voiceSettings.similarityBoost());
+            g.writeEndObject();
+            g.writeStringField("output_format", outputFormat);
+            g.writeEndObject();
+        }
+    }
+
+    /** POST /v1/voices/add 응답의 voice_id (없으면 null) */
+    public static final JsonDecoder<String> VOICE_ID = p -> {
+        String[] voiceId = new String[1];
+        JsonReads.fields(p, name -> {
+            if (!"voice_id".equals(name)) return false;
+            voiceId[0] = JsonReads.text(p);
+            return true;
+        });
+        return voiceId[0];
+    };
+}
@@ -0,0 +1,113 @@
+package com.example.eternaltalk.client.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/** HeyGen Avatar IV 생성 / 상태 조회 요청·응답, 완료 웹훅 본문 */
+public final class HeygenPayloads {
+
+    private HeygenPayloads() {}
+
+    /** POST /v2/video/av4/generate 본문 */
+    public record AvatarIVRequest(String title, String imageUrl, String audioUrl,
+                                  int width, int height) implements JsonPayload {
+        @Override
+        public void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            g.writeStringField("title", title);
+            g.writeStringField("image_url", imageUrl);
+            g.writeObjectFieldStart("voice");
+            g.writeStringField("type", "audio");
+            g.writeStringField("audio_url", audioUrl);
+            g.writeEndObject();
+            g.writeObjectFieldStart("dimension");
+            g.writeNumberField("width", width);
+            g.writeNumberField("height", height);
+            g.writeEndObject();
+            g.writeEndObject();
+        }
+    }
+
+    /** v1/video_status.get 응답 */
+    public record VideoStatus(String status, String videoUrl) {}
+
+    /** 생성 응답의 video_id: { "data": { "video_id" } } 우선, 없으면 최상위 { "video_id" } (둘 다 없으면 null) */
+    public static final JsonDecoder<String> VIDEO_ID = p -> {
+        String[] top = new String[1], data = new String[1];
+        JsonReads.fields(p, name -> {
+            if ("video_id".equals(name)) {
+                top[0] = JsonReads.text(p);
+                return true;
+            }
+            if (!"data".equals(name) || p.currentToken() != JsonToken.START_OBJECT) return false;
+            JsonReads.fields(p, f -> {
+                if (!"video_id".equals(f)) return false;
+                data[0] = JsonReads.text(p);
+                return true;
+            });
+            return true;
+        });
+        return data[0] != null ? data[0] : top[0];
+    };
+
+    /**
+     * 상태 응답: data 객체가 있으면 data.status / data.video_url(또는 url), 없으면 최상위에서 같은 필드.
+     * 문서/환경에 따라 "video_url" 또는 "url" 로 올 수 있어 video_url 을 우선한다.
+     */
+    public static final JsonDecoder<VideoStatus> STATUS = p -> {
+        String[] top = new String[3], data = new String[3]; // status, video_url, url
+        boolean[] hasData = new boolean[1];
+        JsonReads.fields(p, name -> {
+            if ("data".equals(name) && p.currentToken() == JsonToken.START_OBJECT) {
+                hasData[0] = true;
+                JsonReads.fields(p, f -> statusField(p, f, data));
+                return true;
+            }
+            return statusField(p, name, top);
+        });
+        String[] s = hasData[0] ? data : top;
+        return new VideoStatus(s[0], s[1] != null ? s[1] : s[2]);
+    };
+
+    /** 웹훅 콜백: { "event_type": "avatar_video.success" | "avatar_video.fail", "event_data": { "video_id", "url", "msg" } } */
+    public record WebhookEvent(String eventType, String videoId, String url, String message) {}
+
+    public static final JsonDecoder<WebhookEvent> WEBHOOK = p -> {
+        String[] v = new String[4]; // event_type, video_id, url, msg
+        JsonReads.fields(p, name -> {
+            if ("event_type".equals(name)) {
+                v[0] = JsonReads.text(p);
+                return true;
+            }
+            if (!"event_data".equals(name) || p.currentToken() != JsonToken.START_OBJECT) return false;
+            JsonReads.fields(p, f -> {
+                int i = switch (f) {
+                    case "video_id" -> 1;
+                    case "url" -> 2;
+                    case "msg" -> 3;
+                    default -> -1;
+                };
+                if (i < 0) return false;
+                v[i] = JsonReads.text(p);
+                return true;
+            });
+            return true;
+        });
+        return new WebhookEvent(v[0], v[1], v[2], v[3]);
+    };
+
+    private static boolean statusField(JsonParser p, String name, String[] out) throws IOException {
+        int i = switch (name) {
+            case "status" -> 0;
+            case "video_url" -> 1;
+            case "url" -> 2;
+            default -> -1;
+        };
+        if (i < 0) return false;
+        out[i] = JsonReads.text(p);
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.eternaltalk.client.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 벤더 요청/응답 공용 JSON 코덱.
+ * - 요청: JsonPayload 를 요청의 DataBuffer(Netty 풀 버퍼)에 JsonGenerator 로 바로 기록하는 BodyInserter
+ * - 응답: 본문 DataBuffer 를 이어 붙여 JsonParser 로 필요한 필드만 읽고 즉시 버퍼 반환
+ * 문자열 이스케이프(제어문자 포함)는 Jackson 이 처리하고, 내부 char/byte 버퍼는 Jackson BufferRecycler 가 재사용한다.
+ */
+@Component
+public class JsonCodec {
+
+    private static final int INITIAL_BUFFER = 512;
+    private static final int MAX_RESPONSE_BYTES = 1024 * 1024;
+
+    private final JsonFactory factory;
+
+    public JsonCodec(ObjectMapper objectMapper) {
+        this.factory = objectMapper.getFactory();
+    }
+
+    /** WebClient.body(...) 용. 요청을 쓰는 시점에 버퍼를 채우고 Content-Length 를 붙인다 */
+    public BodyInserter<JsonPayload, ReactiveHttpOutputMessage> body(JsonPayload payload) {
+        return (message, context) -> {
+            DataBuffer buffer = message.bufferFactory().allocateBuffer(INITIAL_BUFFER);
+            try {
+                write(payload, buffer);
+            } catch (RuntimeException e) {
+                DataBufferUtils.release(buffer);
+                return Mono.error(e);
+            }
+            HttpHeaders headers = message.getHeaders();
+            if (headers.getContentType() == null) headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(buffer.readableByteCount());
+            return message.writeWith(Mono.just(buffer));
+        };
+    }
+
+    /** 주어진 버퍼 끝에 기록 (버퍼는 필요하면 커진다) */
+    public void write(JsonPayload payload, DataBuffer buffer) {
+        try (OutputStream out = buffer.asOutputStream();
+             JsonGenerator g = factory.createGenerator(out)) {
+            payload.writeTo(g);
+        } catch (IOException e) {
+            throw new UncheckedIOException("JSON 요청 본문 작성 실패", e);
+        }
+    }
+
+    /** 응답 본문 전체를 모아 decoder 로 읽는다. 빈 본문은 빈 객체로 읽고, decoder 가 null 이면 빈 Mono */
+    public <T> Mono<T> decode(Flux<DataBuffer> body, JsonDecoder<T> decoder) {
+        return DataBufferUtils.join(body, MAX_RESPONSE_BYTES)
+                .defaultIfEmpty(DefaultDataBufferFactory.sharedInstance.wrap(new byte[0]))
+                .mapNotNull(buffer -> {
+                    try {
+                        return read(buffer, decoder);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                });
+    }
+
+    public <T> T read(DataBuffer buffer, JsonDecoder<T> decoder) {
+        try (InputStream in = buffer.asInputStream();
+             JsonParser p = factory.createParser(in)) {
+            return readRoot(p, decoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("JSON 응답 파싱 실패", e);
+        }
+    }
+
+    public <T> T parse(String json, JsonDecoder<T> decoder) {
+        try (JsonParser p = factory.createParser(json)) {
+            return readRoot(p, decoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("JSON 응답 파싱 실패", e);
+        }
+    }
+
+    public <T> T parse(byte[] json, JsonDecoder<T> decoder) {
+        try (JsonParser p = factory.createParser(json)) {
+            return readRoot(p, decoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("JSON 응답 파싱 실패", e);
+        }
+    }
+
+    /** 루트가 객체가 아니면(빈 본문, null 등) 빈 객체로 본다 */
+    private <T> T readRoot(JsonParser p, JsonDecoder<T> decoder) throws IOException {
+        if (p.nextToken() == JsonToken.START_OBJECT) return decoder.read(p);
+        try (JsonParser empty = factory.createParser("{}")) {
+            empty.nextToken();
+            return decoder.read(empty);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.eternaltalk.client.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/** 응답 본문: Jackson 스트리밍 파서에서 필요한 필드만 읽어 타입 있는 값으로 (트리/Map 없음) */
+@FunctionalInterface
+public interface JsonDecoder<T> {
+    T read(JsonParser p) throws IOException;
+}
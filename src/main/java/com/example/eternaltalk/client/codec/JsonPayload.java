@@ -0,0 +1,11 @@
+package com.example.eternaltalk.client.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/** 요청 본문: Jackson 스트리밍 생성기로 직접 기록 (중간 String/Map 없음) */
+@FunctionalInterface
+public interface JsonPayload {
+    void writeTo(JsonGenerator g) throws IOException;
+}
@@ -0,0 +1,38 @@
+package com.example.eternaltalk.client.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/** 스트리밍 파서용 작은 도우미. 모르는 필드는 skipChildren 으로 건너뛴다 */
+final class JsonReads {
+
+    private JsonReads() {}
+
+    @FunctionalInterface
+    interface Field {
+        /** 값 토큰에 위치한 상태로 호출. 값을 소비했으면 true, 아니면 false (건너뜀) */
+        boolean read(String name) throws IOException;
+    }
+
+    /** 현재 START_OBJECT 의 필드를 순회 (END_OBJECT 에서 끝남) */
+    static void fields(JsonParser p, Field field) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if (!field.read(name)) p.skipChildren();
+        }
+    }
+
+    /** 스칼라 값은 문자열로, null/객체/배열은 null (객체/배열은 건너뜀) */
+    static String text(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == null || t == JsonToken.VALUE_NULL) return null;
+        if (!t.isScalarValue()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getValueAsString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.eternaltalk.client.codec;
+
+import com.example.eternaltalk.client.OpenAiClient.OpenAiMessage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.List;
+
+/** OpenAI Chat Completions 요청/응답 */
+public final class OpenAiPayloads {
+
+    private OpenAiPayloads() {}
+
+    /**
+     * POST /v1/chat/completions 본문.
+     * systemPrompt 는 JSON 문자열 내용으로 이미 이스케이프된 UTF-8 바이트(따옴표 없음) → 재이스케이프 없이 그대로 복사
+     */
+    public record ChatRequest(String model, boolean stream, byte[] systemPrompt,
+                              List<OpenAiMessage> history, String userText) implements JsonPayload {
+        @Override
+        public void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            g.writeStringField("model", model);
+            g.writeBooleanField("stream", stream);
+            g.writeArrayFieldStart("messages");
+
+            g.writeStartObject();
+            g.writeStringField("role", "system");
+            g.writeFieldName("content");
+            g.writeRawUTF8String(systemPrompt, 0, systemPrompt.length);
+            g.writeEndObject();
+
+            if (history != null) {
+                for (OpenAiMessage m : history) message(g, m.role(), m.content());
+            }
+            message(g, "user", userText);
+
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+
+        private static void message(JsonGenerator g, String role, String content) throws IOException {
+            g.writeStartObject();
+            g.writeStringField("role", role);
+            g.writeStringField("content", content != null ? content : "");
+            g.writeEndObject();
+        }
+    }
+
+    /** 일반 응답의 choices[0].message.content (없으면 null) */
+    public static final JsonDecoder<String> CHAT_CONTENT = firstChoiceContent("message");
+
+    /** 스트리밍 청크의 choices[0].delta.content (role 만 있는 첫 청크 등은 null) */
+    public static final JsonDecoder<String> STREAM_DELTA = firstChoiceContent("delta");
+
+    private static JsonDecoder<String> firstChoiceContent(String messageField) {
+        return p -> {
+            String[] content = new String[1];
+            JsonReads.fields(p, name -> {
+                if (!"choices".equals(name) || p.currentToken() != JsonToken.START_ARRAY) return false;
+                boolean first = true;
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    if (first && p.currentToken() == JsonToken.START_OBJECT) {
+                        JsonReads.fields(p, choiceField -> {
+                            if (!messageField.equals(choiceField) || p.currentToken() != JsonToken.START_OBJECT) return false;
+                            JsonReads.fields(p, f -> {
+                                if (!"content".equals(f)) return false;
+                                content[0] = JsonReads.text(p);
+                                return true;
+                            });
+                            return true;
+                        });
+                    } else {
+                        p.skipChildren();
+                    }
+                    first = false;
+                }
+                return true;
+            });
+            return content[0];
+        };
+    }
+}
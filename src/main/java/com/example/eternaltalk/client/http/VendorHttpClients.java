@@ -0,0 +1,102 @@
+package com.example.eternaltalk.client.http;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 벤더 WebClient 공용 팩토리.
+ * 벤더마다 별도 ConnectionProvider(풀 크기/유휴 정리/수명/대기열)와 타임아웃·버퍼 상한을 적용하고,
+ * 지원하는 벤더는 ALPN 으로 HTTP/2 를 협상한다.
+ * 풀 지표는 reactor.netty.connection.provider.* (name=벤더)로 노출
+ * (active/idle/pending connections, pending.connections.time = 커넥션 획득 대기 시간).
+ * 기동 완료 시 벤더별로 warmupConnections 개의 TLS 연결을 미리 맺어 첫 요청의 핸드셰이크를 없앤다.
+ */
+@Component
+public class VendorHttpClients {
+
+    private static final Logger log = LoggerFactory.getLogger(VendorHttpClients.class);
+
+    private final WebClient.Builder baseBuilder;
+    private final VendorHttpProperties properties;
+    private final Map<String, Registered> registered = new ConcurrentHashMap<>();
+
+    public VendorHttpClients(WebClient.Builder baseBuilder, VendorHttpProperties properties) {
+        this.baseBuilder = baseBuilder; // Boot 기본 코덱/ObjectMapper/관측 설정 포함
+        this.properties = properties;
+    }
+
+    /** 벤더 전용 풀·타임아웃이 적용된 WebClient.Builder (baseUrl 설정됨) */
+    public WebClient.Builder builder(String vendor, String baseUrl) {
+        VendorHttpProperties.Pool pool = properties.resolve(vendor);
+        ConnectionProvider provider = registered.computeIfAbsent(vendor, v -> new Registered(provider(v, pool), baseUrl, pool))
+                .provider();
+
+        HttpClient http = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.connectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(pool.responseTimeout())
+                .protocol(pool.http2()
+                        ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+
+        return baseBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize((int) pool.maxInMemorySize().toBytes()));
+    }
+
+    /** 기동 완료 후 TLS 사전 연결 (실패해도 무시, 기동을 막지 않음) */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmup() {
+        registered.forEach((vendor, r) -> {
+            int n = r.pool().warmupConnections();
+            if (n <= 0) return;
+            WebClient web = builder(vendor, r.baseUrl()).build();
+            Flux.range(0, n)
+                    .flatMap(i -> web.head().uri("/")
+                            .exchangeToMono(resp -> resp.releaseBody().thenReturn(1))
+                            .onErrorResume(e -> Mono.just(0)), n)
+                    .reduce(Integer::sum)
+                    .timeout(Duration.ofSeconds(30), Mono.just(0))
+                    .subscribe(ok -> log.info("{} 커넥션 사전 연결: {}/{}", vendor, ok, n));
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        registered.values().forEach(r -> r.provider().disposeLater().block(Duration.ofSeconds(5)));
+    }
+
+    // ---- Helpers ----
+
+    private static ConnectionProvider provider(String vendor, VendorHttpProperties.Pool pool) {
+        return ConnectionProvider.builder(vendor)
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .maxLifeTime(pool.maxLifeTime())
+                .evictInBackground(pool.evictInterval())
+                .lifo() // 최근 쓴(따뜻한) 커넥션 우선 → 나머지는 유휴 정리 대상
+                .metrics(true)
+                .build();
+    }
+
+    private record Registered(ConnectionProvider provider, String baseUrl, VendorHttpProperties.Pool pool) {}
+}
@@ -0,0 +1,59 @@
+package com.example.eternaltalk.client.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** application.yml 의 vendor-http.defaults.* / vendor-http.vendors.{openai|elevenlabs|heygen}.* */
+@ConfigurationProperties("vendor-http")
+public record VendorHttpProperties(Pool defaults, Map<String, Pool> vendors) {
+
+    /**
+     * @param maxConnections         벤더별 최대 커넥션 수(HTTP/2 면 커넥션당 여러 스트림)
+     * @param pendingAcquireMaxCount 커넥션 대기열 상한(초과 시 즉시 실패)
+     * @param pendingAcquireTimeout  커넥션 획득 대기 시간
+     * @param maxIdleTime            유휴 커넥션 유지 시간(LB/벤더 유휴 종료보다 짧게)
+     * @param maxLifeTime            커넥션 최대 수명(DNS 변경 반영)
+     * @param evictInterval          백그라운드 유휴/만료 커넥션 정리 주기
+     * @param connectTimeout         TCP 연결 타임아웃
+     * @param responseTimeout        응답 헤더/청크 사이 최대 대기
+     * @param maxInMemorySize        본문 디코딩 버퍼 상한(mp3 등 바이너리 응답 고려)
+     * @param http2                  ALPN 으로 HTTP/2 협상(미지원 시 HTTP/1.1)
+     * @param warmupConnections      기동 시 미리 TLS 연결해 둘 커넥션 수(0 이면 생략)
+     */
+    public record Pool(Integer maxConnections, Integer pendingAcquireMaxCount, Duration pendingAcquireTimeout,
+                       Duration maxIdleTime, Duration maxLifeTime, Duration evictInterval,
+                       Duration connectTimeout, Duration responseTimeout, DataSize maxInMemorySize,
+                       Boolean http2, Integer warmupConnections) {
+
+        static final Pool BUILT_IN = new Pool(50, 500, Duration.ofSeconds(5),
+                Duration.ofSeconds(55), Duration.ofMinutes(10), Duration.ofSeconds(30),
+                Duration.ofSeconds(3), Duration.ofSeconds(60), DataSize.ofMegabytes(1),
+                false, 2);
+
+        /** 빠진 항목은 base 값으로 */
+        Pool orElse(Pool base) {
+            return new Pool(
+                    maxConnections != null ? maxConnections : base.maxConnections,
+                    pendingAcquireMaxCount != null ? pendingAcquireMaxCount : base.pendingAcquireMaxCount,
+                    pendingAcquireTimeout != null ? pendingAcquireTimeout : base.pendingAcquireTimeout,
+                    maxIdleTime != null ? maxIdleTime : base.maxIdleTime,
+                    maxLifeTime != null ? maxLifeTime : base.maxLifeTime,
+                    evictInterval != null ? evictInterval : base.evictInterval,
+                    connectTimeout != null ? connectTimeout : base.connectTimeout,
+                    responseTimeout != null ? responseTimeout : base.responseTimeout,
+                    maxInMemorySize != null ? maxInMemorySize : base.maxInMemorySize,
+                    http2 != null ? http2 : base.http2,
+                    warmupConnections != null ? warmupConnections : base.warmupConnections);
+        }
+    }
+
+    /** 벤더 설정 → defaults → 내장 기본값 순으로 채움 */
+    Pool resolve(String vendor) {
+        Pool base = defaults != null ? defaults.orElse(Pool.BUILT_IN) : Pool.BUILT_IN;
+        Pool v = vendors != null ? vendors.get(vendor) : null;
+        return v != null ? v.orElse(base) : base;
+    }
+}
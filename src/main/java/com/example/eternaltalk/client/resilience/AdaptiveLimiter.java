@@ -0,0 +1,221 @@
+package com.example.eternaltalk.client.resilience;
+
+import com.example.eternaltalk.client.VendorException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 벤더 하나의 적응형 동시성 한도 (AIMD).
+ * - 성공이고 지연이 latencyThreshold 이하: 한도를 절반 이상 쓰고 있으면 +1 (가산 증가)
+ * - 429/5xx/타임아웃/연결 실패 또는 지연 초과: 한도 × backoffRatio (곱셈 감소)
+ * 한도를 넘는 요청은 최대 maxQueue 개까지 maxWait 동안 대기, 그 이상은 즉시 VendorOverloadedException.
+ * 스트리밍(Flux)은 첫 원소까지의 시간을 지연으로 본다. 허가는 스트림 종료/취소 시 반환.
+ */
+public final class AdaptiveLimiter {
+
+    /**
+     * @param initialLimit     시작 동시성 한도
+     * @param minLimit         최소 한도
+     * @param maxLimit         최대 한도
+     * @param maxQueue         한도 초과 시 대기열 길이
+     * @param maxWait          대기열 최대 대기 시간
+     * @param latencyThreshold 이보다 느리면 과부하 신호로 본다
+     * @param backoffRatio     과부하 신호 시 한도 배율(0~1)
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, int maxQueue,
+                           Duration maxWait, Duration latencyThreshold, double backoffRatio) {}
+
+    private final String vendor;
+    private final Settings settings;
+    private final Runnable onRejected;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private volatile double limit;   // 쓰기는 lock 안에서, 지표용 읽기는 락 없이
+    private volatile int inFlight;
+    private volatile double latencyEwmaMs;
+
+    AdaptiveLimiter(String vendor, Settings settings, Runnable onRejected) {
+        this.vendor = vendor;
+        this.settings = settings;
+        this.onRejected = onRejected;
+        this.limit = settings.initialLimit();
+    }
+
+    public <T> Mono<T> run(Mono<T> call) {
+        return Mono.usingWhen(acquire(),
+                permit -> call,
+                permit -> Mono.fromRunnable(() -> release(permit, null)),
+                (permit, e) -> Mono.fromRunnable(() -> release(permit, e)),
+                permit -> Mono.fromRunnable(() -> release(permit, CANCELLED)));
+    }
+
+    public <T> Flux<T> run(Flux<T> call) {
+        return Flux.usingWhen(acquire(),
+                permit -> call.doOnNext(x -> permit.markFirst()),
+                permit -> Mono.fromRunnable(() -> release(permit, null)),
+                (permit, e) -> Mono.fromRunnable(() -> release(permit, e)),
+                permit -> Mono.fromRunnable(() -> release(permit, CANCELLED)));
+    }
+
+    public int limit() { return (int) limit; }
+
+    public int inFlight() { return inFlight; }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- 허가 획득/반환 ----
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter w = new Waiter(sink);
+            boolean immediate = false, rejected = false;
+            lock.lock();
+            try {
+                if (waiters.isEmpty() && inFlight < currentLimit()) {
+                    immediate = w.grant();
+                    inFlight++;
+                } else if (waiters.size() >= settings.maxQueue()) {
+                    rejected = true;
+                } else {
+                    waiters.addLast(w);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (rejected) {
+                onRejected.run();
+                sink.error(new VendorOverloadedException(vendor, retryAfter()));
+                return;
+            }
+
+            // 전달 전에 취소되면 허가를 돌려준다 (전달된 뒤의 취소는 usingWhen 이 처리)
+            sink.onCancel(() -> {
+                if (w.state.compareAndSet(WAITING, ABANDONED)) remove(w);
+                else if (w.state.get() == GRANTED) release(w.permit, CANCELLED);
+            });
+
+            if (immediate) {
+                sink.success(w.permit);
+            } else {
+                w.timer = Schedulers.parallel().schedule(() -> {
+                    if (w.state.compareAndSet(WAITING, ABANDONED)) {
+                        remove(w);
+                        onRejected.run();
+                        sink.error(new VendorOverloadedException(vendor, retryAfter()));
+                    }
+                }, settings.maxWait().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void release(Permit permit, Throwable error) {
+        if (!permit.released.compareAndSet(false, true)) return;
+        long latencyNanos = (permit.firstAt != 0 ? permit.firstAt : System.nanoTime()) - permit.start;
+
+        List<Waiter> granted = new ArrayList<>(1);
+        lock.lock();
+        try {
+            inFlight--;
+            if (error != CANCELLED) {
+                boolean drop = error != null ? isOverload(error) : latencyNanos > settings.latencyThreshold().toNanos();
+                if (drop) {
+                    limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+                } else if (error == null && (inFlight + 1) * 2 >= limit) {
+                    limit = Math.min(settings.maxLimit(), limit + 1);
+                }
+                if (error == null) {
+                    double ms = latencyNanos / 1_000_000.0;
+                    latencyEwmaMs = latencyEwmaMs == 0 ? ms : latencyEwmaMs * 0.9 + ms * 0.1;
+                }
+            }
+            while (inFlight < currentLimit() && !waiters.isEmpty()) {
+                Waiter w = waiters.pollFirst();
+                if (w.grant()) {
+                    inFlight++;
+                    granted.add(w);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Waiter w : granted) {
+            if (w.timer != null) w.timer.dispose();
+            w.sink.success(w.permit); // 락 밖에서 구독자 재개
+        }
+    }
+
+    private void remove(Waiter w) {
+        lock.lock();
+        try {
+            waiters.remove(w);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return Math.max(1, (int) limit);
+    }
+
+    /** 대기열 길이와 평균 지연으로 재시도 간격 추정 (1~30초) */
+    private Duration retryAfter() {
+        double seconds = Math.max(latencyEwmaMs, 1000) / 1000.0 * (1 + (double) queued() / currentLimit());
+        return Duration.ofSeconds(Math.min(30, (long) Math.ceil(seconds)));
+    }
+
+    /** 벤더 과부하 신호인지 (요청 자체의 4xx 는 한도를 건드리지 않음) */
+    static boolean isOverload(Throwable e) {
+        if (e instanceof VendorException ve) return ve.isOverload();
+        return e instanceof TimeoutException || e instanceof WebClientRequestException;
+    }
+
+    // ---- 내부 상태 ----
+
+    private static final Throwable CANCELLED = new Throwable("cancelled", null, false, false) {};
+
+    private static final int WAITING = 0, GRANTED = 1, ABANDONED = 2;
+
+    private static final class Permit {
+        final long start = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean();
+        volatile long firstAt;
+
+        void markFirst() { if (firstAt == 0) firstAt = System.nanoTime(); }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        volatile Permit permit;
+        volatile Disposable timer;
+
+        Waiter(MonoSink<Permit> sink) { this.sink = sink; }
+
+        /** 대기 중이면 허가 부여. 대기 시간은 지연 측정에서 제외되도록 여기서 시작 시각을 잡는다 */
+        boolean grant() {
+            permit = new Permit();
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+    }
+}
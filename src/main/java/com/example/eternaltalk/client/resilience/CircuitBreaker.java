@@ -0,0 +1,187 @@
+package com.example.eternaltalk.client.resilience;
+
+import com.example.eternaltalk.client.VendorException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 벤더 하나의 서킷 브레이커.
+ * 최근 window 건(단, windowDuration 이내)의 결과 중 오류 종류별 건수가 임계치를 넘으면 OPEN.
+ * 호출이 뜸해도 오래된 오류가 남아 OPEN 을 일으키지 않도록 windowDuration 보다 오래된 결과는 세지 않는다.
+ * - 429(레이트 리밋), 5xx, 타임아웃/연결 실패는 임계치와 OPEN 유지 시간을 따로 둔다
+ * - 4xx(요청 문제), 동시성 한도 초과(503 대기열), 취소는 집계하지 않는다
+ * OPEN 시간이 지나면 HALF_OPEN: halfOpenProbes 건만 통과시켜 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    enum Outcome { SUCCESS, RATE_LIMITED, SERVER_ERROR, TIMEOUT, IGNORED }
+
+    /**
+     * @param threshold 최근 window 건 중 이 종류 오류가 이 수 이상이면 OPEN
+     * @param openFor   OPEN 유지 시간
+     */
+    public record Rule(int threshold, Duration openFor) {}
+
+    /**
+     * @param window         집계할 최근 호출 수
+     * @param windowDuration 이보다 오래된 결과는 집계하지 않음
+     * @param halfOpenProbes HALF_OPEN 에서 통과시킬 시험 호출 수
+     */
+    public record Settings(int window, Duration windowDuration, int halfOpenProbes,
+                           Rule rateLimited, Rule serverError, Rule timeout) {}
+
+    private final String vendor;
+    private final Settings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongSupplier clock; // nanoTime
+    private final Outcome[] ring;
+    private final long[] ringAt;      // 결과 기록 시각 (nanoTime)
+    private int ringPos;
+    private volatile State state = State.CLOSED;
+    private long openUntil;          // nanoTime
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    CircuitBreaker(String vendor, Settings settings) {
+        this(vendor, settings, System::nanoTime);
+    }
+
+    CircuitBreaker(String vendor, Settings settings, LongSupplier clock) {
+        this.vendor = vendor;
+        this.settings = settings;
+        this.clock = clock;
+        this.ring = new Outcome[Math.max(1, settings.window())];
+        this.ringAt = new long[ring.length];
+    }
+
+    public <T> Mono<T> run(Mono<T> call) {
+        return Mono.defer(() -> {
+            boolean probe = acquire();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnSuccess(v -> record(recorded, probe, Outcome.SUCCESS))
+                    .doOnError(e -> record(recorded, probe, classify(e)))
+                    .doOnCancel(() -> record(recorded, probe, Outcome.IGNORED));
+        });
+    }
+
+    /** 스트리밍: 첫 원소(또는 빈 완료)를 성공으로 본다 */
+    public <T> Flux<T> run(Flux<T> call) {
+        return Flux.defer(() -> {
+            boolean probe = acquire();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnNext(v -> record(recorded, probe, Outcome.SUCCESS))
+                    .doOnComplete(() -> record(recorded, probe, Outcome.SUCCESS))
+                    .doOnError(e -> record(recorded, probe, classify(e)))
+                    .doOnCancel(() -> record(recorded, probe, Outcome.IGNORED));
+        });
+    }
+
+    public State state() {
+        return state;
+    }
+
+    // ---- Helpers ----
+
+    /** 호출 가능 여부 판단. OPEN 이면 즉시 CircuitOpenException. HALF_OPEN 시험 호출이면 true */
+    private boolean acquire() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (state == State.OPEN) {
+                if (now - openUntil < 0) throw new CircuitOpenException(vendor, Duration.ofNanos(openUntil - now));
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= settings.halfOpenProbes()) throw new CircuitOpenException(vendor, Duration.ofSeconds(1));
+                probesInFlight++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(AtomicBoolean recorded, boolean probe, Outcome outcome) {
+        if (!recorded.compareAndSet(false, true)) return;
+        lock.lock();
+        try {
+            if (probe) {
+                if (state != State.HALF_OPEN) return;
+                probesInFlight--;
+                switch (outcome) {
+                    case IGNORED -> { }
+                    case SUCCESS -> {
+                        if (++probesSucceeded >= settings.halfOpenProbes()) close();
+                    }
+                    default -> open(ruleOf(outcome));
+                }
+                return;
+            }
+            if (state != State.CLOSED || outcome == Outcome.IGNORED) return;
+            long now = clock.getAsLong();
+            ring[ringPos] = outcome;
+            ringAt[ringPos] = now;
+            ringPos = (ringPos + 1) % ring.length;
+            if (outcome != Outcome.SUCCESS) {
+                Rule rule = ruleOf(outcome);
+                if (count(outcome, now) >= rule.threshold()) open(rule);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open(Rule rule) {
+        state = State.OPEN;
+        openUntil = clock.getAsLong() + rule.openFor().toNanos();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        Arrays.fill(ring, null);
+        ringPos = 0;
+    }
+
+    /** windowDuration 안의 해당 종류 결과 수 */
+    private int count(Outcome outcome, long now) {
+        long horizon = settings.windowDuration().toNanos();
+        int c = 0;
+        for (int i = 0; i < ring.length; i++) {
+            if (ring[i] == outcome && now - ringAt[i] <= horizon) c++;
+        }
+        return c;
+    }
+
+    private Rule ruleOf(Outcome outcome) {
+        return switch (outcome) {
+            case RATE_LIMITED -> settings.rateLimited();
+            case SERVER_ERROR -> settings.serverError();
+            default -> settings.timeout();
+        };
+    }
+
+    static Outcome classify(Throwable e) {
+        if (e instanceof VendorException ve) {
+            if (ve.getStatus() == 429) return Outcome.RATE_LIMITED;
+            if (ve.getStatus() >= 500) return Outcome.SERVER_ERROR;
+            return Outcome.IGNORED; // 요청 자체의 4xx
+        }
+        if (e instanceof TimeoutException || e instanceof WebClientRequestException) return Outcome.TIMEOUT;
+        return Outcome.IGNORED; // 동시성 한도 초과 등 벤더와 무관한 실패
+    }
+}
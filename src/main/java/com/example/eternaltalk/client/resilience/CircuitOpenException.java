@@ -0,0 +1,20 @@
+package com.example.eternaltalk.client.resilience;
+
+import java.time.Duration;
+
+/** 서킷이 열려 벤더를 호출하지 않고 즉시 실패한 경우 */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String vendor;
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String vendor, Duration retryAfter) {
+        super(vendor + " 서비스가 일시적으로 불안정합니다. 잠시 후 다시 시도해 주세요.", null, false, false);
+        this.vendor = vendor;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getVendor() { return vendor; }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,46 @@
+package com.example.eternaltalk.client.resilience;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 요청 단위 마감 시각. 컨트롤러가 엔드포인트별 예산으로 만들어 Reactor Context 에 넣고(Deadlines.within),
+ * 각 벤더 호출은 bound() 로 남은 시간만큼만 기다린다.
+ * 이미 지났으면 벤더를 호출하지 않고 DeadlineExceededException, 호출 중 초과하면 TimeoutException.
+ */
+public record Deadline(long expiresAtNanos) {
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean expired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /** Context 에 마감이 있으면 남은 시간으로 타임아웃 */
+    public static <T> Mono<T> bound(Mono<T> call) {
+        return Mono.deferContextual(ctx -> {
+            Deadline d = ctx.getOrDefault(Deadline.class, null);
+            if (d == null) return call;
+            if (d.expired()) return Mono.error(new DeadlineExceededException());
+            return call.timeout(d.remaining());
+        });
+    }
+
+    /** 스트리밍: 첫 원소까지만 마감 적용 (이후 청크 사이 대기는 HTTP responseTimeout) */
+    public static <T> Flux<T> boundFirst(Flux<T> call) {
+        return Flux.deferContextual(ctx -> {
+            Deadline d = ctx.getOrDefault(Deadline.class, null);
+            if (d == null) return call;
+            if (d.expired()) return Flux.error(new DeadlineExceededException());
+            return call.timeout(Mono.delay(d.remaining()), x -> Mono.never());
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.eternaltalk.client.resilience;
+
+/** 벤더 호출 전에 요청 예산을 이미 다 쓴 경우 (벤더 장애로 집계하지 않음) */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("요청 처리 시간이 초과되었습니다.", null, false, false);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.eternaltalk.client.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** application.yml 의 deadlines.default-budget / deadlines.endpoints.{chat-send|...} */
+@ConfigurationProperties("deadlines")
+public record DeadlineProperties(Duration defaultBudget, Map<String, Duration> endpoints) {
+
+    Duration budgetOf(String endpoint) {
+        Duration d = endpoints != null ? endpoints.get(endpoint) : null;
+        if (d != null) return d;
+        return defaultBudget != null ? defaultBudget : Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.eternaltalk.client.resilience;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** 엔드포인트별 지연 예산 → Deadline 을 Reactor Context 에 실어 하위 벤더 호출까지 전달 */
+@Component
+public class Deadlines {
+
+    private final DeadlineProperties properties;
+
+    public Deadlines(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    /** 호출 시점(요청 스레드)부터 예산을 잰다 */
+    public <T> Mono<T> within(String endpoint, Mono<T> mono) {
+        Deadline d = Deadline.after(properties.budgetOf(endpoint));
+        return mono.contextWrite(ctx -> ctx.put(Deadline.class, d));
+    }
+
+    public <T> Flux<T> within(String endpoint, Flux<T> flux) {
+        Deadline d = Deadline.after(properties.budgetOf(endpoint));
+        return flux.contextWrite(ctx -> ctx.put(Deadline.class, d));
+    }
+}
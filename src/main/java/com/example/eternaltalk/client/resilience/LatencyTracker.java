@@ -0,0 +1,36 @@
+package com.example.eternaltalk.client.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/** 최근 N건 지연 표본으로 백분위 추정 (헤지 지연 계산용). 메모리 연산만 하므로 synchronized */
+public final class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private int pos;
+    private int count;
+
+    public LatencyTracker(int size) {
+        this.samples = new long[size];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[pos] = nanos;
+        pos = (pos + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    /** 표본이 부족하면 fallback */
+    public Duration percentile(double p, Duration fallback) {
+        long[] copy;
+        synchronized (this) {
+            if (count < MIN_SAMPLES) return fallback;
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        int idx = (int) Math.min(copy.length - 1, Math.ceil(p * copy.length) - 1);
+        return Duration.ofNanos(copy[Math.max(0, idx)]);
+    }
+}
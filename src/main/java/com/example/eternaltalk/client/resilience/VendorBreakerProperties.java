@@ -0,0 +1,50 @@
+package com.example.eternaltalk.client.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** application.yml 의 vendor-breaker.defaults.* / vendor-breaker.vendors.{openai}.* */
+@ConfigurationProperties("vendor-breaker")
+public record VendorBreakerProperties(Breaker defaults, Map<String, Breaker> vendors) {
+
+    public record Breaker(Integer window, Duration windowDuration, Integer halfOpenProbes,
+                          Rule rateLimited, Rule serverError, Rule timeout) {
+
+        static final Breaker BUILT_IN = new Breaker(20, Duration.ofSeconds(60), 2,
+                new Rule(5, Duration.ofSeconds(10)),
+                new Rule(5, Duration.ofSeconds(30)),
+                new Rule(3, Duration.ofSeconds(30)));
+
+        /** 빠진 항목은 base 값으로 */
+        Breaker orElse(Breaker base) {
+            return new Breaker(
+                    window != null ? window : base.window,
+                    windowDuration != null ? windowDuration : base.windowDuration,
+                    halfOpenProbes != null ? halfOpenProbes : base.halfOpenProbes,
+                    rateLimited != null ? rateLimited.orElse(base.rateLimited) : base.rateLimited,
+                    serverError != null ? serverError.orElse(base.serverError) : base.serverError,
+                    timeout != null ? timeout.orElse(base.timeout) : base.timeout);
+        }
+    }
+
+    public record Rule(Integer threshold, Duration openFor) {
+        Rule orElse(Rule base) {
+            return new Rule(threshold != null ? threshold : base.threshold, openFor != null ? openFor : base.openFor);
+        }
+
+        CircuitBreaker.Rule toRule() {
+            return new CircuitBreaker.Rule(threshold, openFor);
+        }
+    }
+
+    /** 벤더 설정 → defaults → 내장 기본값 순으로 채움 */
+    CircuitBreaker.Settings resolve(String vendor) {
+        Breaker base = defaults != null ? defaults.orElse(Breaker.BUILT_IN) : Breaker.BUILT_IN;
+        Breaker v = vendors != null ? vendors.get(vendor) : null;
+        Breaker b = v != null ? v.orElse(base) : base;
+        return new CircuitBreaker.Settings(b.window(), b.windowDuration(), b.halfOpenProbes(),
+                b.rateLimited().toRule(), b.serverError().toRule(), b.timeout().toRule());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.eternaltalk.client.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 벤더별 CircuitBreaker 보관소.
+ * 지표: vendor.breaker.state {vendor} (0=CLOSED, 1=HALF_OPEN, 2=OPEN)
+ */
+@Component
+public class VendorBreakers {
+
+    private final VendorBreakerProperties properties;
+    private final MeterRegistry registry;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public VendorBreakers(VendorBreakerProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public CircuitBreaker of(String vendor) {
+        return breakers.computeIfAbsent(vendor, this::create);
+    }
+
+    private CircuitBreaker create(String vendor) {
+        CircuitBreaker breaker = new CircuitBreaker(vendor, properties.resolve(vendor));
+        Gauge.builder("vendor.breaker.state", breaker, b -> b.state().ordinal()).tag("vendor", vendor).register(registry);
+        return breaker;
+    }
+}
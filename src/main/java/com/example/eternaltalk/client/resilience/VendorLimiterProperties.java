@@ -0,0 +1,39 @@
+package com.example.eternaltalk.client.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** application.yml 의 vendor-limiter.defaults.* / vendor-limiter.vendors.{openai|elevenlabs|heygen}.* */
+@ConfigurationProperties("vendor-limiter")
+public record VendorLimiterProperties(Limits defaults, Map<String, Limits> vendors) {
+
+    public record Limits(Integer initialLimit, Integer minLimit, Integer maxLimit, Integer maxQueue,
+                         Duration maxWait, Duration latencyThreshold, Double backoffRatio) {
+
+        static final Limits BUILT_IN = new Limits(20, 2, 200, 100,
+                Duration.ofSeconds(2), Duration.ofSeconds(10), 0.9);
+
+        /** 빠진 항목은 base 값으로 */
+        Limits orElse(Limits base) {
+            return new Limits(
+                    initialLimit != null ? initialLimit : base.initialLimit,
+                    minLimit != null ? minLimit : base.minLimit,
+                    maxLimit != null ? maxLimit : base.maxLimit,
+                    maxQueue != null ? maxQueue : base.maxQueue,
+                    maxWait != null ? maxWait : base.maxWait,
+                    latencyThreshold != null ? latencyThreshold : base.latencyThreshold,
+                    backoffRatio != null ? backoffRatio : base.backoffRatio);
+        }
+    }
+
+    /** 벤더 설정 → defaults → 내장 기본값 순으로 채움 */
+    AdaptiveLimiter.Settings resolve(String vendor) {
+        Limits base = defaults != null ? defaults.orElse(Limits.BUILT_IN) : Limits.BUILT_IN;
+        Limits v = vendors != null ? vendors.get(vendor) : null;
+        Limits l = v != null ? v.orElse(base) : base;
+        return new AdaptiveLimiter.Settings(l.initialLimit(), l.minLimit(), l.maxLimit(), l.maxQueue(),
+                l.maxWait(), l.latencyThreshold(), l.backoffRatio());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.eternaltalk.client.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 벤더별 AdaptiveLimiter 보관소. 한 벤더가 느려져도 그 벤더 요청만 대기/503 이 되고
+ * 다른 벤더·일반 API 는 영향을 받지 않는다.
+ * 지표: vendor.limiter.limit / inflight / queue / rejected {vendor}
+ */
+@Component
+public class VendorLimiters {
+
+    private final VendorLimiterProperties properties;
+    private final MeterRegistry registry;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public VendorLimiters(VendorLimiterProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public AdaptiveLimiter of(String vendor) {
+        return limiters.computeIfAbsent(vendor, this::create);
+    }
+
+    private AdaptiveLimiter create(String vendor) {
+        Counter rejected = Counter.builder("vendor.limiter.rejected").tag("vendor", vendor).register(registry);
+        AdaptiveLimiter limiter = new AdaptiveLimiter(vendor, properties.resolve(vendor), rejected::increment);
+        Gauge.builder("vendor.limiter.limit", limiter, AdaptiveLimiter::limit).tag("vendor", vendor).register(registry);
+        Gauge.builder("vendor.limiter.inflight", limiter, AdaptiveLimiter::inFlight).tag("vendor", vendor).register(registry);
+        Gauge.builder("vendor.limiter.queue", limiter, AdaptiveLimiter::queued).tag("vendor", vendor).register(registry);
+        return limiter;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.eternaltalk.client.resilience;
+
+import java.time.Duration;
+
+/** 벤더 동시성 한도 + 대기열이 모두 찬 경우. 503 + Retry-After 로 응답 */
+public class VendorOverloadedException extends RuntimeException {
+
+    private final String vendor;
+    private final Duration retryAfter;
+
+    public VendorOverloadedException(String vendor, Duration retryAfter) {
+        super(vendor + " 요청이 많아 잠시 후 다시 시도해 주세요.");
+        this.vendor = vendor;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getVendor() { return vendor; }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
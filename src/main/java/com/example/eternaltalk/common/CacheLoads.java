@@ -0,0 +1,42 @@
+package com.example.eternaltalk.common;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Caffeine 캐시 미스 로딩을 맵 락 밖에서 수행.
+ * Cache.get(key, loader) 는 ConcurrentHashMap.compute 의 버킷 락(synchronized) 안에서 loader 를 돌리므로
+ * loader 가 DB 를 읽으면 가상 스레드가 캐리어에 고정(pinning)된다.
+ * 여기서는 빈 future 만 락 안에서 넣고, 실제 조회는 호출 스레드가 락 밖에서 한다.
+ * 같은 키의 동시 미스는 먼저 넣은 future 를 기다린다(single-flight). 실패한 future 는 Caffeine 이 제거한다.
+ */
+public final class CacheLoads {
+
+    private CacheLoads() {}
+
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> existing = cache.getIfPresent(key);
+        if (existing == null) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            existing = cache.asMap().putIfAbsent(key, mine);
+            if (existing == null) {
+                try {
+                    mine.complete(loader.apply(key));
+                } catch (RuntimeException | Error e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                }
+                return mine.join();
+            }
+        }
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
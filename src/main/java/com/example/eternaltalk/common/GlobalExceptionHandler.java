@@ -1,21 +1,75 @@
 package com.example.eternaltalk.common;
 
+import com.example.eternaltalk.client.VendorException;
+import com.example.eternaltalk.client.resilience.CircuitOpenException;
+import com.example.eternaltalk.client.resilience.DeadlineExceededException;
+import com.example.eternaltalk.client.resilience.VendorOverloadedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 // src/main/java/com/example/eternaltalk/common/GlobalExceptionHandler.java
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String,Object>> bad(IllegalArgumentException e){
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(Map.of("message", e.getMessage(), "code", 400));
     }
 
+    // 벤더 동시성 한도 초과 → 빠른 503 (클라이언트는 Retry-After 후 재시도)
+    @ExceptionHandler(VendorOverloadedException.class)
+    public ResponseEntity<Map<String,Object>> overloaded(VendorOverloadedException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(Map.of("message", e.getMessage(), "code", 503));
+    }
+
+    // 벤더 서킷 OPEN → 즉시 503
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<Map<String,Object>> circuitOpen(CircuitOpenException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(Map.of("message", e.getMessage(), "code", 503));
+    }
+
+    // 엔드포인트 지연 예산 초과 → 504
+    @ExceptionHandler({TimeoutException.class, DeadlineExceededException.class})
+    public ResponseEntity<Map<String,Object>> deadline(Exception e){
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("message", "요청 처리 시간이 초과되었습니다.", "code", 504));
+    }
+
+    // 벤더가 요청을 거절(4xx, 429/인증 제외) → 400, 그 외 벤더 오류 → 502. 벤더 응답 본문은 로그에만 남긴다
+    @ExceptionHandler(VendorException.class)
+    public ResponseEntity<Map<String,Object>> vendor(VendorException e){
+        int status = e.getStatus();
+        if (status >= 400 && status < 500 && status != 401 && status != 403 && status != 429) {
+            log.info("벤더 요청 거절 {} {}: {}", e.getVendor(), status, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "요청이 거절되었습니다. 입력 값을 확인해 주세요.", "code", 400));
+        }
+        log.warn("벤더 오류 {} {}: {}", e.getVendor(), status, e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body(Map.of("message", "외부 서비스 오류가 발생했습니다. 잠시 후 다시 시도해 주세요.", "code", 502));
+    }
+
+    // spring.servlet.multipart 상한 초과 → 413
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String,Object>> tooLarge(MaxUploadSizeExceededException e){
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("message", "업로드 파일이 너무 큽니다.", "code", 413));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String,Object>> invalid(MethodArgumentNotValidException e){
         String msg = e.getBindingResult().getFieldError() != null ?
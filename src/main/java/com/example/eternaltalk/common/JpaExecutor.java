@@ -0,0 +1,80 @@
+package com.example.eternaltalk.common;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 컨트롤러 경로에서 JPA(블로킹) 작업을 돌리는 전용 풀.
+ * - 스레드 수는 커넥션 풀 크기에 맞춘다(그 이상은 커넥션 대기만 늘어남)
+ * - 대기열이 차면 503 (Tomcat 워커 대신 여기서 배압)
+ * - Reactor Context 의 SecurityContext(SecurityUtils.withSecurityContext)를 실행 스레드에 복원
+ * 벤더 HTTP 호출은 이 풀을 쓰지 않는다. DB 구간만 짧게 감싼다.
+ */
+@Component
+public class JpaExecutor {
+
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    public JpaExecutor(TransactionTemplate tx,
+                       @Value("${app.jpa-executor.threads:10}") int threads,
+                       @Value("${app.jpa-executor.queue-capacity:1000}") int queueCapacity) {
+        this.tx = tx;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("jpa-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler = Schedulers.fromExecutorService(executor, "jpa");
+    }
+
+    /** 트랜잭션 없이(리포지토리 단위 트랜잭션) 실행. null 반환 시 빈 Mono */
+    public <T> Mono<T> call(Supplier<T> work) {
+        return Mono.deferContextual(ctx -> {
+                    SecurityContext sc = ctx.getOrDefault(SecurityContext.class, null);
+                    return Mono.fromSupplier(() -> withSecurity(sc, work));
+                })
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "요청이 많아 잠시 후 다시 시도해 주세요."));
+    }
+
+    /** 한 트랜잭션으로 실행 (벤더 호출 전후의 DB 구간용) */
+    public <T> Mono<T> tx(Supplier<T> work) {
+        return call(() -> tx.execute(status -> work.get()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+
+    // ---- Helpers ----
+
+    private static <T> T withSecurity(SecurityContext sc, Supplier<T> work) {
+        if (sc == null) return work.get();
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(sc);
+        try {
+            return work.get();
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.eternaltalk.common;
+
+/**
+ * 채팅/음성/영상 텍스트 글자수 규칙을 한 곳에서 계산.
+ * - 공백: Character.isWhitespace 와 동일 (ASCII 는 테이블 조회)
+ * - 한글: 음절/자모/호환 자모/확장 A·B 범위 (UnicodeBlock 조회 대신 범위 비교)
+ * - 이모지: 주요 픽토그램/딩뱃/변형 선택자/국기 범위
+ * ASCII 문자는 코드포인트 디코딩 없이 처리하고, 측정 중 객체를 만들지 않는다.
+ */
+public final class TextMetrics {
+
+    private static final boolean[] ASCII_WHITESPACE = new boolean[128];
+    static {
+        for (int c = 0; c < 128; c++) ASCII_WHITESPACE[c] = Character.isWhitespace(c);
+    }
+
+    private TextMetrics() {}
+
+    /** 한 번의 순회로 모든 지표 계산 */
+    public static Metrics measure(CharSequence s) {
+        if (s == null) return Metrics.EMPTY;
+        int codePoints = 0, nonWhitespace = 0, hangul = 0, emoji = 0;
+        int i = 0, n = s.length();
+        while (i < n) {
+            char ch = s.charAt(i);
+            codePoints++;
+            if (ch < 0x80) { // ASCII: 공백 여부만 의미 있음
+                i++;
+                if (!ASCII_WHITESPACE[ch]) nonWhitespace++;
+                continue;
+            }
+            int cp = codePointAt(s, i, n, ch);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp)) continue;
+            nonWhitespace++;
+            if (isEmoji(cp)) emoji++;
+            else if (isHangul(cp)) hangul++;
+        }
+        return new Metrics(codePoints, nonWhitespace, hangul, emoji);
+    }
+
+    /** 공백 제외 코드포인트 수 (채팅 쿼터 기준) */
+    public static int countNonWhitespace(CharSequence s) {
+        if (s == null) return 0;
+        int c = 0, i = 0, n = s.length();
+        while (i < n) {
+            char ch = s.charAt(i);
+            if (ch < 0x80) {
+                i++;
+                if (!ASCII_WHITESPACE[ch]) c++;
+                continue;
+            }
+            int cp = codePointAt(s, i, n, ch);
+            i += Character.charCount(cp);
+            if (!Character.isWhitespace(cp)) c++;
+        }
+        return c;
+    }
+
+    /** 한글(공백/이모지 제외)이 1자 이상 limit 자 이하인지. 한도를 넘는 즉시 중단 */
+    public static boolean isKoreanWithin(CharSequence s, int limit) {
+        if (s == null) return false;
+        int count = 0, i = 0, n = s.length();
+        while (i < n) {
+            char ch = s.charAt(i);
+            if (ch < 0x80) { i++; continue; } // ASCII 에는 한글/이모지가 없음
+            int cp = codePointAt(s, i, n, ch);
+            i += Character.charCount(cp);
+            if (isHangul(cp) && ++count > limit) return false;
+        }
+        return count >= 1;
+    }
+
+    public static boolean isHangul(int cp) {
+        return (cp >= 0xAC00 && cp <= 0xD7AF)    // HANGUL_SYLLABLES
+                || (cp >= 0x1100 && cp <= 0x11FF) // HANGUL_JAMO
+                || (cp >= 0x3130 && cp <= 0x318F) // HANGUL_COMPATIBILITY_JAMO
+                || (cp >= 0xA960 && cp <= 0xA97F) // HANGUL_JAMO_EXTENDED_A
+                || (cp >= 0xD7B0 && cp <= 0xD7FF); // HANGUL_JAMO_EXTENDED_B
+    }
+
+    public static boolean isEmoji(int cp) {
+        return (cp >= 0x1F300 && cp <= 0x1FAFF)
+                || (cp >= 0x2600 && cp <= 0x27BF)
+                || (cp >= 0xFE00 && cp <= 0xFE0F)
+                || (cp >= 0x1F1E6 && cp <= 0x1F1FF);
+    }
+
+    private static int codePointAt(CharSequence s, int i, int n, char ch) {
+        if (Character.isHighSurrogate(ch) && i + 1 < n) {
+            char lo = s.charAt(i + 1);
+            if (Character.isLowSurrogate(lo)) return Character.toCodePoint(ch, lo);
+        }
+        return ch;
+    }
+
+    /**
+     * @param codePoints    전체 코드포인트 수
+     * @param nonWhitespace 공백 제외 코드포인트 수
+     * @param hangul        한글 글자 수(공백/이모지 제외)
+     * @param emoji         이모지 코드포인트 수
+     */
+    public record Metrics(int codePoints, int nonWhitespace, int hangul, int emoji) {
+        static final Metrics EMPTY = new Metrics(0, 0, 0, 0);
+
+        public boolean isKoreanWithin(int limit) { return hangul >= 1 && hangul <= limit; }
+    }
+}
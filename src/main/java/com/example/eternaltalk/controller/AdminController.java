@@ -0,0 +1,22 @@
+package com.example.eternaltalk.controller;
+
+import com.example.eternaltalk.dto.AdminDtos.*;
+import com.example.eternaltalk.service.entitlement.EntitlementService;
+import com.example.eternaltalk.service.entitlement.Entitlements;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+// /api/admin/** 는 SecurityConfig 에서 ROLE_ADMIN 만 허용
+@RestController @RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    private final EntitlementService entitlementService;
+
+    @PutMapping("/users/{userId}/plan")
+    public EntitlementsResponse changePlan(@PathVariable Long userId, @Valid @RequestBody ChangePlanRequest req){
+        Entitlements e = entitlementService.changePlan(userId, req.plan());
+        return new EntitlementsResponse(userId, e.plan(), e.dailyChatChars(),
+                e.videoCooldown().toSeconds(), e.voiceMaxChars(), e.videoMaxChars());
+    }
+}
@@ -1,19 +1,25 @@
 // src/main/java/com/example/eternaltalk/controller/ChatController.java
 package com.example.eternaltalk.controller;
 
+import com.example.eternaltalk.client.resilience.Deadlines;
 import com.example.eternaltalk.dto.ChatDtos;
 import com.example.eternaltalk.security.SecurityUtils;
 import com.example.eternaltalk.service.ChatService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api")
 public class ChatController {
 
     private final ChatService service;
-    public ChatController(ChatService service){ this.service = service; }
+    private final Deadlines deadlines;
+    public ChatController(ChatService service, Deadlines deadlines){ this.service = service; this.deadlines = deadlines; }
 
     // ✅ GET /api/memory/profile 추가 (프론트 hasProfile/getProfile에서 호출)
     @GetMapping("/memory/profile")
@@ -28,14 +34,21 @@ public class ChatController {
     @PutMapping("/memory/profile")
     public ChatDtos.UpsertProfileResponse upsertProfile(@Valid @RequestBody ChatDtos.UpsertProfileRequest req){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        return service.upsertProfile(email, req.displayName, req.personalityPrompt);
+        return service.upsertProfile(email, req.displayName, req.personalityPrompt, req.replyCacheEnabled);
     }
 
     // POST /api/chat/send
     @PostMapping("/chat/send")
-    public ChatDtos.SendResponse send(@Valid @RequestBody ChatDtos.SendRequest req){
+    public Mono<ChatDtos.SendResponse> send(@Valid @RequestBody ChatDtos.SendRequest req){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        return service.send(email, req.text);
+        return SecurityUtils.withSecurityContext(deadlines.within("chat-send", service.send(email, req.text)));
+    }
+
+    // POST /api/chat/stream (SSE: delta 이벤트 반복 → done 이벤트로 잔여 글자 전달)
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> stream(@Valid @RequestBody ChatDtos.SendRequest req){
+        String email = SecurityUtils.currentUserEmailOrThrow();
+        return SecurityUtils.withSecurityContext(deadlines.within("chat-stream", service.stream(email, req.text)));
     }
 
     // GET /api/chat/quota
@@ -0,0 +1,25 @@
+package com.example.eternaltalk.controller;
+
+import com.example.eternaltalk.service.video.HeygenWebhookReplayer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// 로컬 프로필 전용: 기록된 HeyGen 완료 콜백을 재생 (application-local.yml 참고)
+@RestController
+@RequestMapping("/api/dev/heygen")
+@Profile("local")
+public class LocalHeygenReplayController {
+
+    private final HeygenWebhookReplayer replayer;
+    public LocalHeygenReplayController(HeygenWebhookReplayer replayer){ this.replayer = replayer; }
+
+    // POST /api/dev/heygen/replay/{jobId}?event=success|fail
+    @PostMapping("/replay/{jobId}")
+    public Mono<Map<String, Object>> replay(@PathVariable String jobId,
+                                            @RequestParam(defaultValue = "success") String event){
+        return replayer.replay(jobId, event).map(status -> Map.of("jobId", jobId, "event", event, "webhookStatus", status));
+    }
+}
@@ -1,45 +1,57 @@
 package com.example.eternaltalk.controller;
 
+import com.example.eternaltalk.client.resilience.Deadlines;
 import com.example.eternaltalk.dto.VideoDtos;
 import com.example.eternaltalk.security.SecurityUtils;
 import com.example.eternaltalk.service.VideoService;
 import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/video")
 public class VideoController {
 
     private final VideoService service;
-    public VideoController(VideoService service){ this.service = service; }
+    private final Deadlines deadlines;
+    public VideoController(VideoService service, Deadlines deadlines){ this.service = service; this.deadlines = deadlines; }
 
-    // (기존) 텍스트로 생성: 서버 내부에서 TTS -> 오디오 -> 영상
+    // (기존) 텍스트로 생성: 작업 등록 후 바로 jobId, 서버 내부에서 TTS -> 오디오 -> 영상 단계 실행
     @PostMapping("/generate")
-    public VideoDtos.GenerateResponse generate(@Valid @RequestBody VideoDtos.GenerateRequest req){
+    public Mono<VideoDtos.GenerateResponse> generate(@Valid @RequestBody VideoDtos.GenerateRequest req){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        return service.generateFromText(email, req.text);
+        return SecurityUtils.withSecurityContext(deadlines.within("video-generate", service.generateFromText(email, req.text)));
     }
 
     // === [추가] 이미 만들어진 오디오(audioUrl)로 바로 생성 ===
     @PostMapping("/generate-from-audio")
-    public VideoDtos.GenerateResponse generateFromAudio(@Valid @RequestBody VideoDtos.GenerateFromAudioRequest req){
+    public Mono<VideoDtos.GenerateResponse> generateFromAudio(@Valid @RequestBody VideoDtos.GenerateFromAudioRequest req){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        return service.generateFromAudio(email, req.audioUrl);
+        return SecurityUtils.withSecurityContext(deadlines.within("video-generate", service.generateFromAudio(email, req.audioUrl)));
     }
 
     // (기존) 정면 사진 업로드
     @PostMapping(value="/upload-photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public VideoDtos.UploadPhotoResponse uploadPhoto(@RequestPart("file") MultipartFile file){
+    public Mono<VideoDtos.UploadPhotoResponse> uploadPhoto(@RequestPart("file") MultipartFile file){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        return service.uploadPhoto(email, file);
+        return SecurityUtils.withSecurityContext(deadlines.within("video-upload-photo", service.uploadPhoto(email, file)));
     }
 
     // (기존) 상태 폴링
     @GetMapping("/status/{jobId}")
-    public VideoDtos.StatusResponse status(@PathVariable String jobId){
+    public Mono<VideoDtos.StatusResponse> status(@PathVariable String jobId){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        return service.status(email, jobId);
+        return SecurityUtils.withSecurityContext(deadlines.within("video-status", service.status(email, jobId)));
+    }
+
+    // 완료 알림 구독 (SSE: status 이벤트 → PROCESSING 이면 DONE/ERROR status 이벤트까지 대기)
+    @GetMapping(value = "/status/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<VideoDtos.StatusResponse>> watch(@PathVariable String jobId){
+        String email = SecurityUtils.currentUserEmailOrThrow();
+        return SecurityUtils.withSecurityContext(service.watch(email, jobId));
     }
 }
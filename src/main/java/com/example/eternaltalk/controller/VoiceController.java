@@ -1,12 +1,15 @@
 package com.example.eternaltalk.controller;
 
+import com.example.eternaltalk.client.resilience.Deadlines;
 import com.example.eternaltalk.dto.VoiceDtos;
 import com.example.eternaltalk.security.SecurityUtils;
 import com.example.eternaltalk.service.VoiceService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -15,25 +18,42 @@ import java.util.List;
 public class VoiceController {
 
     private final VoiceService voiceService;
+    private final Deadlines deadlines;
 
-    public VoiceController(VoiceService voiceService) {
+    public VoiceController(VoiceService voiceService, Deadlines deadlines) {
         this.voiceService = voiceService;
+        this.deadlines = deadlines;
     }
 
     // POST /api/voice/generate
     @PostMapping("/generate")
-    public VoiceDtos.AudioResponse generate(@Valid @RequestBody VoiceDtos.GenerateRequest req){
+    public Mono<VoiceDtos.AudioResponse> generate(@Valid @RequestBody VoiceDtos.GenerateRequest req){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        String url = voiceService.generate(email, req.text);
-        return new VoiceDtos.AudioResponse(url);
+        return SecurityUtils.withSecurityContext(deadlines.within("voice-generate", voiceService.generate(email, req.text)
+                .map(VoiceDtos.AudioResponse::new)));
+    }
+
+    // POST /api/voice/generate-async → 202 { jobId, status }, 결과는 GET /api/voice/jobs/{jobId}
+    @PostMapping("/generate-async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<VoiceDtos.JobResponse> generateAsync(@Valid @RequestBody VoiceDtos.GenerateRequest req){
+        String email = SecurityUtils.currentUserEmailOrThrow();
+        return SecurityUtils.withSecurityContext(deadlines.within("voice-generate-async", voiceService.generateAsync(email, req.text)));
+    }
+
+    // GET /api/voice/jobs/{jobId}
+    @GetMapping("/jobs/{jobId}")
+    public Mono<VoiceDtos.JobResponse> job(@PathVariable String jobId){
+        String email = SecurityUtils.currentUserEmailOrThrow();
+        return SecurityUtils.withSecurityContext(deadlines.within("voice-job", voiceService.job(email, jobId)));
     }
 
     // POST /api/voice/upload-sample
     @PostMapping(value="/upload-sample", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public VoiceDtos.UploadSampleResponse upload(@RequestPart("file") MultipartFile file){
+    public Mono<VoiceDtos.UploadSampleResponse> upload(@RequestPart("file") MultipartFile file){
         String email = SecurityUtils.currentUserEmailOrThrow();
-        String voiceId = voiceService.uploadSample(email, file);
-        return new VoiceDtos.UploadSampleResponse(voiceId);
+        return SecurityUtils.withSecurityContext(deadlines.within("voice-upload-sample", voiceService.uploadSample(email, file)
+                .map(VoiceDtos.UploadSampleResponse::new)));
     }
 
     // GET /api/voice/samples
@@ -0,0 +1,24 @@
+package com.example.eternaltalk.controller;
+
+import com.example.eternaltalk.service.video.HeygenWebhookHandler;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// 벤더 콜백. /api/webhooks/** 는 SecurityConfig 에서 인증 없이 허용하고 각 핸들러가 서명으로 검증
+@RestController
+@RequestMapping("/api/webhooks")
+public class WebhookController {
+
+    private final HeygenWebhookHandler heygen;
+    public WebhookController(HeygenWebhookHandler heygen){ this.heygen = heygen; }
+
+    // POST /api/webhooks/heygen (서명 검증을 위해 본문은 원문 바이트 그대로 받음)
+    @PostMapping(value = "/heygen", consumes = MediaType.ALL_VALUE)
+    public Mono<Map<String, Boolean>> heygen(@RequestBody byte[] body,
+                                             @RequestHeader(value = HeygenWebhookHandler.SIGNATURE_HEADER, required = false) String signature){
+        return heygen.handle(body, signature).thenReturn(Map.of("ok", true));
+    }
+}
@@ -0,0 +1,2 @@
+package com.example.eternaltalk.domain;
+public enum Plan { FREE, SILVER, GOLD }
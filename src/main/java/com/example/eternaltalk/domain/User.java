@@ -21,6 +21,10 @@ public class User {
     @Enumerated(EnumType.STRING) @Column(nullable=false)
     private Role role = Role.USER;
 
+    @Enumerated(EnumType.STRING) @Column(name="plan")
+    @Builder.Default
+    private Plan plan = Plan.FREE;             // 요금제(null 이면 FREE 취급)
+
     private Boolean consent = false;           // 디지털 유산 동의여부
     private LocalDateTime createdAt;
     private LocalDateTime deletedAt;
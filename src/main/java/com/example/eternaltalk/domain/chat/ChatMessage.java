@@ -0,0 +1,28 @@
+package com.example.eternaltalk.domain.chat;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "chat_message", indexes =
+@Index(name="idx_chat_message_user", columnList = "user_id, id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ChatMessage {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name="user_id", nullable=false)
+    private Long userId;
+
+    @Column(name="role", nullable=false, length = 16) // user | assistant
+    private String role;
+
+    @Column(name="content", nullable=false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name="created_at", nullable=false)
+    private LocalDateTime createdAt;
+}
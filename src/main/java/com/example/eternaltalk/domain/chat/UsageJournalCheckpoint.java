@@ -0,0 +1,18 @@
+package com.example.eternaltalk.domain.chat;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** 노드별 사용량 저널에서 DB 반영이 끝난 마지막 세그먼트 번호 (재시작 시 중복 반영 방지) */
+@Entity
+@Table(name = "usage_journal_checkpoint")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UsageJournalCheckpoint {
+
+    @Id
+    @Column(name="node_id", length = 64)
+    private String nodeId;
+
+    @Column(name="last_segment", nullable=false)
+    private long lastSegment;
+}
@@ -5,7 +5,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity @Table(name = "memory_profile",// 비디오 url 수정
-        uniqueConstraints = @UniqueConstraint(name="uk_memory_profile_user", columnNames = "user_id"))
+        uniqueConstraints = @UniqueConstraint(name="uk_memory_profile_user", columnNames = "user_id"),
+        indexes = @Index(name="idx_memory_profile_voice", columnList = "voice_clone_id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class MemoryProfile {
 
@@ -18,6 +19,9 @@ public class MemoryProfile {
     @Column(name="voice_clone_id")
     private String voiceCloneId;
 
+    @Column(name="voice_sample_hash", length = 64) // voiceCloneId 를 만든 샘플의 sha256 (같은 샘플 재업로드 시 재사용)
+    private String voiceSampleHash;
+
     @Column(name = "photo_url", columnDefinition = "TEXT")  // 또는 length = 2048
     private String photoUrl;
 
@@ -27,6 +31,9 @@ public class MemoryProfile {
     @Column(name = "personality_prompt", columnDefinition = "TEXT")
     private String personalityPrompt;
 
+    @Column(name = "reply_cache_enabled") // null = 허용, false = 이 프로필은 답장 캐시 사용 안 함
+    private Boolean replyCacheEnabled;
+
     private LocalDateTime updatedAt;
 
     @PrePersist @PreUpdate
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "video_request", indexes = {
         @Index(name="idx_video_request_user", columnList = "user_id"),
-        @Index(name="idx_video_request_job", columnList = "job_id", unique = true)
+        @Index(name="idx_video_request_job", columnList = "job_id", unique = true),
+        @Index(name="idx_video_request_poll", columnList = "status, next_poll_at"),
+        @Index(name="idx_video_request_stage", columnList = "status, stage, stage_due_at"),
+        @Index(name="idx_video_request_video", columnList = "video_id")
 })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class VideoRequest {
@@ -18,12 +21,37 @@ public class VideoRequest {
     @Column(name="user_id", nullable=false)
     private Long userId;
 
-    @Column(name="job_id", nullable=false, unique = true)
+    @Column(name="job_id", nullable=false, unique = true) // 우리 작업 ID (UUID). 파이프라인 이전 행은 HeyGen video_id
     private String jobId;
 
-    @Column(name="status", nullable=false) // PENDING, PROCESSING, DONE, ERROR
+    @Column(name="video_id") // HeyGen video_id (SUBMIT_VIDEO 이후)
+    private String videoId;
+
+    @Column(name="status", nullable=false) // PENDING(TTS~SUBMIT_VIDEO), PROCESSING(AWAIT), DONE, ERROR
     private String status;
 
+    // ---- 생성 파이프라인 (VideoPipeline) ----
+    @Column(name="stage", length = 16) // TTS, STORE_AUDIO, SUBMIT_VIDEO, AWAIT, DONE (파이프라인 이전 행은 null)
+    private String stage;
+
+    @Column(name="stage_attempts") // 현재 단계 시도 횟수 (선점할 때마다 +1, 결과 반영 시 펜싱 토큰으로도 사용)
+    private Integer stageAttempts;
+
+    @Column(name="stage_due_at") // 이 시각 이후 단계 실행기가 가져감 (선점 시 lease 만큼 미룸)
+    private LocalDateTime stageDueAt;
+
+    @Column(name="voice_id")
+    private String voiceId;
+
+    @Column(name="text", columnDefinition = "TEXT")
+    private String text;
+
+    @Column(name="audio_s3_key")
+    private String audioS3Key;
+
+    @Column(name="error", length = 500)
+    private String error;
+
     @Column(name="photo_url") // 요청 당시 기준
     private String photoUrl;
 
@@ -33,9 +61,19 @@ public class VideoRequest {
     @Column(name="result_url")
     private String resultUrl;
 
+    // ---- 서버 측 상태 폴링 (HeygenStatusPoller) ----
+    @Column(name="poll_attempts")
+    private Integer pollAttempts;
+
+    @Column(name="next_poll_at") // 이 시각 이후 폴러가 가져감. 가져간 노드가 lease 만큼 미뤄 두어 다른 노드와 중복 조회 없음
+    private LocalDateTime nextPollAt;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    /** HeyGen 조회/콜백에 쓰는 ID (파이프라인 이전 행은 job_id 가 곧 video_id) */
+    public String heygenVideoId(){ return videoId != null ? videoId : jobId; }
+
     @PrePersist void prePersist(){ createdAt = LocalDateTime.now(); updatedAt = createdAt; }
     @PreUpdate void preUpdate(){ updatedAt = LocalDateTime.now(); }
 }
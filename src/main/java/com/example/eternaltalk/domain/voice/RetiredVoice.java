@@ -0,0 +1,34 @@
+package com.example.eternaltalk.domain.voice;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 교체되어 삭제를 기다리는 ElevenLabs 보이스.
+ * 진행 중인 음성 작업/영상 TTS 가 아직 이 voice_id 를 쓸 수 있으므로 바로 지우지 않고
+ * VoiceRetirement 스윕이 아무도 쓰지 않게 된 뒤 벤더에서 삭제하고 행을 지운다.
+ */
+@Entity
+@Table(name = "retired_voice", indexes = {
+        @Index(name="idx_retired_voice_voice", columnList = "voice_id"),
+        @Index(name="idx_retired_voice_retired", columnList = "retired_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RetiredVoice {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name="voice_id", nullable=false)
+    private String voiceId;
+
+    @Column(name="user_id", nullable=false)
+    private Long userId;
+
+    @Column(name="retired_at", nullable=false)
+    private LocalDateTime retiredAt;
+
+    @PrePersist
+    void retired(){ if (retiredAt == null) retiredAt = LocalDateTime.now(); }
+}
@@ -0,0 +1,37 @@
+package com.example.eternaltalk.domain.voice;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 합성된 TTS 음성의 S3 위치 (내용 주소 방식).
+ * cache_key = sha256(voiceId, text, voice_settings, output_format) → s3_key = tts/{cache_key}.mp3
+ */
+@Entity
+@Table(name = "tts_audio", uniqueConstraints =
+@UniqueConstraint(name="uk_tts_audio_cache_key", columnNames = "cache_key"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TtsAudio {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name="cache_key", nullable=false, length = 64)
+    private String cacheKey;
+
+    @Column(name="voice_id", nullable=false)
+    private String voiceId;
+
+    @Column(name="s3_key", nullable=false)
+    private String s3Key;
+
+    @Column(name="size_bytes")
+    private Long sizeBytes;
+
+    @Column(name="created_at", nullable=false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void created(){ if (createdAt == null) createdAt = LocalDateTime.now(); }
+}
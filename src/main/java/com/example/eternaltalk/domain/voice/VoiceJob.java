@@ -0,0 +1,59 @@
+package com.example.eternaltalk.domain.voice;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 비동기 음성 생성 작업 (/api/voice/generate-async).
+ * cache_key = TTS 캐시 키(voiceId, text) → 같은 사용자의 진행 중인 같은 요청은 한 작업을 공유.
+ * 결과는 s3_key 로 보관하고 조회할 때마다 presigned URL 을 새로 발급한다.
+ */
+@Entity
+@Table(name = "voice_job", indexes = {
+        @Index(name="idx_voice_job_job", columnList = "job_id", unique = true),
+        @Index(name="idx_voice_job_user_key", columnList = "user_id, cache_key, status"),
+        @Index(name="idx_voice_job_status", columnList = "status, started_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class VoiceJob {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name="job_id", nullable=false, unique = true, length = 36)
+    private String jobId;
+
+    @Column(name="user_id", nullable=false)
+    private Long userId;
+
+    @Column(name="voice_id", nullable=false)
+    private String voiceId;
+
+    @Column(name="cache_key", nullable=false, length = 64)
+    private String cacheKey;
+
+    @Column(name="text", nullable=false, columnDefinition = "TEXT")
+    private String text;
+
+    @Column(name="status", nullable=false, length = 16) // QUEUED, RUNNING, DONE, ERROR
+    private String status;
+
+    @Column(name="s3_key")
+    private String s3Key;
+
+    @Column(name="error", length = 500)
+    private String error;
+
+    @Column(name="created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name="started_at") // RUNNING 으로 바뀐 시각 (stale 판정 기준)
+    private LocalDateTime startedAt;
+
+    @Column(name="updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist void prePersist(){ createdAt = LocalDateTime.now(); updatedAt = createdAt; }
+    @PreUpdate void preUpdate(){ updatedAt = LocalDateTime.now(); }
+}
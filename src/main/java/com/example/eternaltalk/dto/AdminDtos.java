@@ -0,0 +1,19 @@
+package com.example.eternaltalk.dto;
+
+import com.example.eternaltalk.domain.Plan;
+import jakarta.validation.constraints.NotNull;
+
+public class AdminDtos {
+
+    // PUT /api/admin/users/{userId}/plan
+    public record ChangePlanRequest(@NotNull(message = "plan은 필수입니다.") Plan plan) {}
+
+    public record EntitlementsResponse(
+            Long userId,
+            Plan plan,
+            int dailyChatChars,
+            long videoCooldownSeconds,
+            int voiceMaxChars,
+            int videoMaxChars
+    ) {}
+}
@@ -11,6 +11,7 @@ public class ChatDtos {
         public String displayName;
         @NotBlank(message = "personalityPrompt는 필수입니다.")
         public String personalityPrompt;
+        public Boolean replyCacheEnabled; // 선택: false 면 반복 메시지 답장 캐시 끔(미지정 시 유지)
     }
     public static class UpsertProfileResponse {
         public String displayName;
@@ -26,9 +27,18 @@ public class ChatDtos {
     public static class SendResponse {
         public String reply;
         public int remainingCharsToday;
-        public SendResponse(String reply, int remaining){ this.reply = reply; this.remainingCharsToday = remaining; }
+        public boolean degraded; // OpenAI 장애로 대체 답장(쿼터 차감 없음)
+        public SendResponse(String reply, int remaining){ this(reply, remaining, false); }
+        public SendResponse(String reply, int remaining, boolean degraded){
+            this.reply = reply; this.remainingCharsToday = remaining; this.degraded = degraded;
+        }
     }
 
+    // POST /api/chat/stream (SSE 이벤트 데이터)
+    public record StreamDelta(String delta) {}               // event: delta
+    public record StreamDone(int remainingCharsToday) {}     // event: done
+    public record StreamDegraded(String reply) {}            // event: degraded (OpenAI 장애 대체 답장, 쿼터 차감 없음)
+
     // GET /api/chat/quota
     public static class QuotaResponse {
         public int remainingCharsToday;
@@ -41,6 +51,7 @@ public class ChatDtos {
             String displayName,
             String personalityPrompt,
             String photoUrl, // 없으면 null 허용
-            String voiceCloneId
+            String voiceCloneId,
+            Boolean replyCacheEnabled
     ) {}
 }
@@ -12,7 +12,7 @@ public class VideoDtos {
 
     public static class GenerateResponse {
         public String jobId;
-        public String status; // PENDING | PROCESSING | DONE | ERROR
+        public String status; // PENDING | PROCESSING | DONE | ERROR (등록 직후는 PENDING)
         public GenerateResponse(String jobId, String status){ this.jobId = jobId; this.status = status; }
     }
 
@@ -33,6 +33,11 @@ public class VideoDtos {
     public static class StatusResponse {
         public String status;   // PENDING | PROCESSING | DONE | ERROR
         public String videoUrl; // DONE일 때만 채움
+        public String stage;    // TTS | STORE_AUDIO | SUBMIT_VIDEO | AWAIT | DONE (생성 파이프라인 진행 단계)
+        public String error;    // ERROR일 때 실패 단계/사유
         public StatusResponse(String status, String videoUrl){ this.status = status; this.videoUrl = videoUrl; }
+        public StatusResponse(String status, String videoUrl, String stage, String error){
+            this(status, videoUrl); this.stage = stage; this.error = error;
+        }
     }
 }
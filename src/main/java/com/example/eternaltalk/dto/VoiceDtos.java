@@ -14,6 +14,17 @@ public class VoiceDtos {
         public AudioResponse(String audioUrl) { this.audioUrl = audioUrl; }
     }
 
+    /** 비동기 음성 작업. status: QUEUED, RUNNING, DONE(audioUrl 있음), ERROR(error 있음) */
+    public static class JobResponse {
+        public String jobId;
+        public String status;
+        public String audioUrl;
+        public String error;
+        public JobResponse(String jobId, String status, String audioUrl, String error) {
+            this.jobId = jobId; this.status = status; this.audioUrl = audioUrl; this.error = error;
+        }
+    }
+
     public static class UploadSampleResponse {
         public String voiceId;
         public UploadSampleResponse(String voiceId) { this.voiceId = voiceId; }
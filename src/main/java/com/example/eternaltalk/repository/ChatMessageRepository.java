@@ -0,0 +1,12 @@
+package com.example.eternaltalk.repository;
+
+import com.example.eternaltalk.domain.chat.ChatMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+    // 최신순. 호출부에서 PageRequest.of(0, n) 으로 개수 제한
+    List<ChatMessage> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+}
@@ -1,10 +1,20 @@
 package com.example.eternaltalk.repository;
 
 import com.example.eternaltalk.domain.memory.MemoryProfile;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface MemoryProfileRepository extends JpaRepository<MemoryProfile, Long> {
     Optional<MemoryProfile> findByUserId(Long userId);
+    boolean existsByVoiceCloneId(String voiceCloneId);
+
+    /** SELECT ... FOR UPDATE (같은 사용자의 프로필 갱신 직렬화, 트랜잭션 안에서 호출) */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from MemoryProfile p where p.userId = :userId")
+    Optional<MemoryProfile> findForUpdateByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,14 @@
+package com.example.eternaltalk.repository;
+
+import com.example.eternaltalk.domain.voice.RetiredVoice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RetiredVoiceRepository extends JpaRepository<RetiredVoice, Long> {
+    boolean existsByVoiceId(String voiceId);
+
+    /** 유예 시간이 지난 것부터 (스윕 한 번에 최대 50개) */
+    List<RetiredVoice> findTop50ByRetiredAtBeforeOrderByRetiredAt(LocalDateTime before);
+}
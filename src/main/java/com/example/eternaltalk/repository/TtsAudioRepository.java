@@ -0,0 +1,10 @@
+package com.example.eternaltalk.repository;
+
+import com.example.eternaltalk.domain.voice.TtsAudio;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface TtsAudioRepository extends JpaRepository<TtsAudio, Long> {
+    Optional<TtsAudio> findByCacheKey(String cacheKey);
+}
@@ -0,0 +1,7 @@
+package com.example.eternaltalk.repository;
+
+import com.example.eternaltalk.domain.chat.UsageJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UsageJournalCheckpointRepository extends JpaRepository<UsageJournalCheckpoint, String> {
+}
@@ -2,9 +2,32 @@ package com.example.eternaltalk.repository;
 
 import com.example.eternaltalk.domain.video.VideoLastGenerated;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface VideoLastGeneratedRepository extends JpaRepository<VideoLastGenerated, Long> {
     Optional<VideoLastGenerated> findByUserId(Long userId);
+
+    /** 마지막 생성이 threshold 이전일 때만 now 로 갱신 (간격 확인 + 기록을 한 문장으로). 갱신된 행 수 반환 */
+    @Modifying
+    @Query(value = "UPDATE video_last_generated SET last_generated_at = :now " +
+            "WHERE user_id = :userId AND last_generated_at <= :threshold", nativeQuery = true)
+    int touchIfBefore(@Param("userId") Long userId, @Param("threshold") LocalDateTime threshold,
+                      @Param("now") LocalDateTime now);
+
+    /** 첫 생성 기록. 이미 행이 있으면(동시 요청이 먼저 넣음) 0 */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO video_last_generated (user_id, last_generated_at) VALUES (:userId, :now)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /** at 에 기록한 생성 간격 되돌림 (그 요청이 영상을 만들지 못하고 실패한 경우). 이후 다른 기록이 있으면 그대로 */
+    @Modifying
+    @Query(value = "DELETE FROM video_last_generated WHERE user_id = :userId AND last_generated_at = :at",
+            nativeQuery = true)
+    int releaseIfAt(@Param("userId") Long userId, @Param("at") LocalDateTime at);
 }
@@ -1,11 +1,51 @@
 package com.example.eternaltalk.repository;
 
 import com.example.eternaltalk.domain.video.VideoRequest;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface VideoRequestRepository extends JpaRepository<VideoRequest, Long> {
     Optional<VideoRequest> findByJobId(String jobId);
     Optional<VideoRequest> findByJobIdAndUserId(String jobId, Long userId);
+    Optional<VideoRequest> findByVideoId(String videoId);
+    boolean existsByVoiceIdAndStatusAndStage(String voiceId, String status, String stage);
+
+    /** SELECT ... FOR UPDATE (파이프라인 단계 결과를 펜싱 확인 후 쓰는 동안 재선점과 겹치지 않게, 트랜잭션 안에서) */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from VideoRequest v where v.id = :id")
+    Optional<VideoRequest> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * 폴링할 차례가 된 PROCESSING 행을 잠가서 가져온다 (트랜잭션 안에서 호출).
+     * 다른 노드가 잠근 행은 기다리지 않고 건너뛴다 (MySQL 8 SKIP LOCKED)
+     */
+    @Query(value = "select * from video_request where status = 'PROCESSING' " +
+            "and (next_poll_at is null or next_poll_at <= :now) " +
+            "order by next_poll_at limit :limit for update skip locked", nativeQuery = true)
+    List<VideoRequest> lockDueForPoll(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /** 실행할 차례가 된 파이프라인 단계 행을 잠가서 가져온다 (트랜잭션 안에서, SKIP LOCKED) */
+    @Query(value = "select * from video_request where status = 'PENDING' and stage = :stage " +
+            "and stage_due_at <= :now order by stage_due_at limit :limit for update skip locked", nativeQuery = true)
+    List<VideoRequest> lockDueStage(@Param("stage") String stage, @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /** PROCESSING 일 때만 DONE 으로 (트랜잭션 안에서). 이미 끝난 행이면 0 */
+    @Modifying
+    @Query("update VideoRequest v set v.status = 'DONE', v.stage = 'DONE', v.resultUrl = :url, v.nextPollAt = null " +
+            "where v.id = :id and v.status = 'PROCESSING'")
+    int completeIfProcessing(@Param("id") Long id, @Param("url") String url);
+
+    /** 아직 끝나지 않았을 때만(PENDING/PROCESSING) ERROR 로 (파이프라인 단계 실패, HeyGen 실패/시간 초과). 이미 끝난 행이면 0 */
+    @Modifying
+    @Query("update VideoRequest v set v.status = 'ERROR', v.error = :error, v.stageDueAt = null, v.nextPollAt = null " +
+            "where v.id = :id and v.status in ('PENDING', 'PROCESSING')")
+    int failIfActive(@Param("id") Long id, @Param("error") String error);
 }
@@ -0,0 +1,46 @@
+package com.example.eternaltalk.repository;
+
+import com.example.eternaltalk.domain.voice.VoiceJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface VoiceJobRepository extends JpaRepository<VoiceJob, Long> {
+    Optional<VoiceJob> findByJobId(String jobId);
+    Optional<VoiceJob> findByJobIdAndUserId(String jobId, Long userId);
+    Optional<VoiceJob> findFirstByUserIdAndCacheKeyAndStatusIn(Long userId, String cacheKey, Collection<String> statuses);
+    boolean existsByVoiceIdAndStatusIn(String voiceId, Collection<String> statuses);
+
+    /** QUEUED → RUNNING (워커가 집어 들 때). 그사이 정리/종료된 작업이면 0 */
+    @Modifying
+    @Transactional
+    @Query("update VoiceJob j set j.status = 'RUNNING', j.startedAt = :now, j.updatedAt = :now " +
+            "where j.jobId = :jobId and j.status = 'QUEUED'")
+    int start(@Param("jobId") String jobId, @Param("now") LocalDateTime now);
+
+    /** from 상태일 때만 종료 상태로. 이미 다른 경로(stale 정리 등)로 바뀌었으면 0 */
+    @Modifying
+    @Transactional
+    @Query("update VoiceJob j set j.status = :to, j.s3Key = :s3Key, j.error = :error, j.updatedAt = CURRENT_TIMESTAMP " +
+            "where j.jobId = :jobId and j.status = :from")
+    int finish(@Param("jobId") String jobId, @Param("from") String from, @Param("to") String to,
+               @Param("s3Key") String s3Key, @Param("error") String error);
+
+    /**
+     * 노드 재시작 등으로 끝나지 못한 작업 정리.
+     * RUNNING 은 시작 후 runningBefore 이전, QUEUED 는 대기열에서 사라진 경우만(생성 후 queuedBefore 이전)
+     */
+    @Modifying
+    @Transactional
+    @Query("update VoiceJob j set j.status = 'ERROR', j.error = :error, j.updatedAt = CURRENT_TIMESTAMP " +
+            "where (j.status = 'RUNNING' and j.startedAt < :runningBefore) " +
+            "or (j.status = 'QUEUED' and j.createdAt < :queuedBefore)")
+    int failStale(@Param("runningBefore") LocalDateTime runningBefore, @Param("queuedBefore") LocalDateTime queuedBefore,
+                  @Param("error") String error);
+}
@@ -52,6 +52,13 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/users/consent").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/auth/signup", "/api/auth/login").permitAll()
                         .requestMatchers("/oauth2/**", "/login/oauth2/**").permitAll()
+                        // ✅ 벤더 웹훅 (서명으로 검증)
+                        .requestMatchers(HttpMethod.POST, "/api/webhooks/**").permitAll()
+                        // ✅ 헬스체크(로드밸런서)만 공개, 나머지 actuator(메트릭)는 관리자 전용
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        // ✅ 관리자 전용
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         // 그 외는 인증
                         .anyRequest().authenticated()
                 )
@@ -2,7 +2,10 @@ package com.example.eternaltalk.security;
 
 import com.example.eternaltalk.common.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class SecurityUtils {
     public static String currentUserEmailOrThrow() {
@@ -12,4 +15,15 @@ public class SecurityUtils {
         }
         return auth.getName(); // JwtAuthenticationFilter에서 email을 넣어줌
     }
+
+    /** 요청 스레드의 SecurityContext 를 Reactor Context 로 옮긴다 (JpaExecutor 가 실행 스레드에 복원) */
+    public static <T> Mono<T> withSecurityContext(Mono<T> mono) {
+        SecurityContext sc = SecurityContextHolder.getContext();
+        return mono.contextWrite(ctx -> ctx.put(SecurityContext.class, sc));
+    }
+
+    public static <T> Flux<T> withSecurityContext(Flux<T> flux) {
+        SecurityContext sc = SecurityContextHolder.getContext();
+        return flux.contextWrite(ctx -> ctx.put(SecurityContext.class, sc));
+    }
 }
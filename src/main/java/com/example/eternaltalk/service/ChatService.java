@@ -2,44 +2,81 @@
 package com.example.eternaltalk.service;
 
 import com.example.eternaltalk.client.OpenAiClient;
+import com.example.eternaltalk.client.VendorException;
+import com.example.eternaltalk.client.resilience.CircuitOpenException;
+import com.example.eternaltalk.client.resilience.DeadlineExceededException;
+import com.example.eternaltalk.client.resilience.VendorOverloadedException;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.common.TextMetrics;
 import com.example.eternaltalk.domain.User;
-import com.example.eternaltalk.domain.chat.ChatUsageDaily;
 import com.example.eternaltalk.domain.memory.MemoryProfile;
 import com.example.eternaltalk.dto.ChatDtos;
-import com.example.eternaltalk.repository.ChatUsageDailyRepository;
 import com.example.eternaltalk.repository.MemoryProfileRepository;
 import com.example.eternaltalk.repository.UserRepository;
+import com.example.eternaltalk.service.chat.ConversationHistory;
+import com.example.eternaltalk.service.chat.PromptCache;
+import com.example.eternaltalk.service.chat.QuotaLedger;
+import com.example.eternaltalk.service.chat.ReplyCache;
+import com.example.eternaltalk.service.entitlement.EntitlementService;
+import com.example.eternaltalk.service.entitlement.Entitlements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.lang.reflect.Field;
-import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class ChatService {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatService.class);
+
     private final UserRepository userRepository;
     private final MemoryProfileRepository memoryProfileRepository;
-    private final ChatUsageDailyRepository chatUsageDailyRepository;
+    private final QuotaLedger quotaLedger;
     private final OpenAiClient openAi;
+    private final ConversationHistory history;
+    private final EntitlementService entitlementService;
+    private final PromptCache promptCache;
+    private final ReplyCache replyCache;
+    private final JpaExecutor jpa;
 
     // 기본 모델 (필요하면 설정값으로 변경)
     private static final String DEFAULT_MODEL = "gpt-4o-mini";
 
+    // OpenAI 서킷이 열렸을 때 즉시 돌려주는 대체 답장
+    private static final String DEGRADED_REPLY = "지금은 마음을 잘 전하기 어려운 상태예요. 잠시 후에 다시 이야기해 줄래요?";
+
     public ChatService(UserRepository userRepository,
                        MemoryProfileRepository memoryProfileRepository,
-                       ChatUsageDailyRepository chatUsageDailyRepository,
-                       OpenAiClient openAi) {
+                       QuotaLedger quotaLedger,
+                       OpenAiClient openAi,
+                       ConversationHistory history,
+                       EntitlementService entitlementService,
+                       PromptCache promptCache,
+                       ReplyCache replyCache,
+                       JpaExecutor jpa) {
         this.userRepository = userRepository;
         this.memoryProfileRepository = memoryProfileRepository;
-        this.chatUsageDailyRepository = chatUsageDailyRepository;
+        this.quotaLedger = quotaLedger;
         this.openAi = openAi;
+        this.history = history;
+        this.entitlementService = entitlementService;
+        this.promptCache = promptCache;
+        this.replyCache = replyCache;
+        this.jpa = jpa;
     }
 
     // 1) 프로필 업서트
-    public ChatDtos.UpsertProfileResponse upsertProfile(String email, String displayName, String personalityPrompt){
+    public ChatDtos.UpsertProfileResponse upsertProfile(String email, String displayName, String personalityPrompt,
+                                                        Boolean replyCacheEnabled){
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
 
@@ -47,61 +84,93 @@ public class ChatService {
                 .orElseGet(() -> MemoryProfile.builder().userId(user.getId()).build());
         mp.setDisplayName(displayName);
         mp.setPersonalityPrompt(personalityPrompt);
+        if (replyCacheEnabled != null) mp.setReplyCacheEnabled(replyCacheEnabled);
         memoryProfileRepository.save(mp);
+        promptCache.invalidate(user.getId());
 
         return new ChatDtos.UpsertProfileResponse(mp.getDisplayName(), mp.getPersonalityPrompt());
     }
 
     // 2) 채팅 전송 (일일 글자 제한 검사)
-    public ChatDtos.SendResponse send(String email, String userText){
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        Plan plan = resolvePlan(user); // FREE/SILVER/GOLD
-        int limit = plan.dailyLimit;
+    //  - DB 구간(사용자/요금제 조회, 쿼터 예약, 확정)만 JPA 풀에서, OpenAI 호출은 논블로킹
+    //  - 에러/취소 시 예약 반환 (확정된 예약이면 무시됨)
+    //  - OpenAI 서킷 OPEN 이면 대체 답장을 즉시 반환하고 쿼터는 차감하지 않음
+    public Mono<ChatDtos.SendResponse> send(String email, String userText){
+        return jpa.call(() -> begin(email, userText))
+                .flatMap(turn -> reply(turn, userText)
+                        .flatMap(reply -> jpa.call(() -> {
+                            // 사용량 확정 + 대화 기록(비동기 저장)
+                            int used = quotaLedger.commit(turn.reservation());
+                            history.append(turn.userId(), userText, reply);
+                            return new ChatDtos.SendResponse(reply, Math.max(0, turn.limit() - used));
+                        }))
+                        .onErrorResume(CircuitOpenException.class, e -> jpa.call(() ->
+                                new ChatDtos.SendResponse(DEGRADED_REPLY, refundAndRemaining(turn), true)))
+                        .doFinally(signal -> quotaLedger.refund(turn.reservation())));
+    }
 
-        int todayUsed = chatUsageDailyRepository.findByUserIdAndUsageDate(user.getId(), LocalDate.now())
-                .map(ChatUsageDaily::getUsedChars).orElse(0);
+    // 2-1) 채팅 스트리밍 전송 (SSE: delta* → done)
+    //  - 쿼터 예약은 스트림 시작 전에 수행(초과 시 일반 429 응답)
+    //  - 스트림이 정상 종료되면 확정, 에러/취소 시 예약 반환
+    public Flux<ServerSentEvent<Object>> stream(String email, String userText){
+        Turn turn = begin(email, userText);
+
+        StringBuilder reply = new StringBuilder();
+        Flux<ServerSentEvent<Object>> deltas = openAi
+                .chatStream(DEFAULT_MODEL, turn.prompt().escapedUtf8(), history.recent(turn.userId()), userText)
+                .doOnNext(reply::append)
+                .map(d -> ServerSentEvent.<Object>builder(new ChatDtos.StreamDelta(d)).event("delta").build());
+
+        // 확정은 Netty 이벤트 루프가 아닌 JPA 풀에서
+        Mono<ServerSentEvent<Object>> done = jpa.call(() -> {
+                    int used = quotaLedger.commit(turn.reservation());
+                    history.append(turn.userId(), userText, reply.toString());
+                    return used;
+                })
+                .map(used -> ServerSentEvent.<Object>builder(
+                        new ChatDtos.StreamDone(Math.max(0, turn.limit() - used))).event("done").build());
+
+        // OpenAI 서킷 OPEN: 대체 답장 + 잔여 글자(차감 없음)
+        Flux<ServerSentEvent<Object>> degraded = jpa.call(() -> refundAndRemaining(turn))
+                .flatMapMany(remaining -> Flux.just(
+                        ServerSentEvent.<Object>builder(new ChatDtos.StreamDegraded(DEGRADED_REPLY)).event("degraded").build(),
+                        ServerSentEvent.<Object>builder(new ChatDtos.StreamDone(remaining)).event("done").build()));
+
+        return deltas.concatWith(done)
+                .onErrorResume(CircuitOpenException.class, e -> degraded)
+                .doFinally(signal -> quotaLedger.refund(turn.reservation())) // 확정된 예약이면 무시됨
+                .onErrorResume(e -> Mono.just(streamError(e)));
+    }
 
-        int inputCount = countCharacters(userText); // 기본: 공백 제외 코드포인트 수
-        if (todayUsed + inputCount > limit) {
-            int remaining = Math.max(0, limit - todayUsed);
-            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
-                    "일일 입력 글자 제한 초과 (남은 글자: " + remaining + ", 요금제: " + plan.name() + ")");
+    /** 스트림 중 오류: 벤더 응답 본문 등 내부 정보는 서버 로그에만, 클라이언트에는 고정 문구 + 코드 */
+    private ServerSentEvent<Object> streamError(Throwable e) {
+        int code;
+        String message;
+        if (e instanceof VendorOverloadedException || e instanceof CircuitOpenException) {
+            code = 503;
+            message = "요청이 많아 잠시 후 다시 시도해 주세요.";
+        } else if (e instanceof TimeoutException || e instanceof DeadlineExceededException) {
+            code = 504;
+            message = "요청 처리 시간이 초과되었습니다.";
+        } else if (e instanceof VendorException || e instanceof WebClientException) {
+            code = 502;
+            message = "답장을 만드는 중 문제가 생겼어요. 잠시 후 다시 시도해 주세요.";
+        } else {
+            code = 500;
+            message = "답장을 만드는 중 문제가 생겼어요. 잠시 후 다시 시도해 주세요.";
         }
-
-        // 시스템 프롬프트 구성: displayName + personalityPrompt
-        MemoryProfile mp = memoryProfileRepository.findByUserId(user.getId())
-                .orElse(null);
-
-        String systemPrompt = buildSystemPrompt(mp);
-
-        // OpenAI 호출
-        String reply = openAi.chat(DEFAULT_MODEL, systemPrompt, userText);
-
-        // 사용량 반영
-        ChatUsageDaily row = chatUsageDailyRepository.findByUserIdAndUsageDate(user.getId(), LocalDate.now())
-                .orElseGet(() -> ChatUsageDaily.builder()
-                        .userId(user.getId())
-                        .usageDate(LocalDate.now())
-                        .usedChars(0)
-                        .build());
-        row.setUsedChars(row.getUsedChars() + inputCount);
-        chatUsageDailyRepository.save(row);
-
-        int remaining = Math.max(0, limit - row.getUsedChars());
-        return new ChatDtos.SendResponse(reply, remaining);
+        log.warn("채팅 스트림 실패 (code={}): {}", code, e.toString());
+        return ServerSentEvent.<Object>builder(Map.of("message", message, "code", code)).event("error").build();
     }
 
     // 3) 잔여 쿼터 조회
     public ChatDtos.QuotaResponse quota(String email){
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-        Plan plan = resolvePlan(user);
-        int used = chatUsageDailyRepository.findByUserIdAndUsageDate(user.getId(), LocalDate.now())
-                .map(ChatUsageDaily::getUsedChars).orElse(0);
-        int remaining = Math.max(0, plan.dailyLimit - used);
-        return new ChatDtos.QuotaResponse(remaining, plan.dailyLimit);
+        Entitlements ent = entitlementService.of(user);
+        int used = quotaLedger.used(user.getId());
+        int remaining = Math.max(0, ent.dailyChatChars() - used);
+        return new ChatDtos.QuotaResponse(remaining, ent.dailyChatChars());
     }
 
     public Optional<ChatDtos.ProfileResponse> getProfile(String email) {
@@ -114,56 +183,59 @@ public class ChatService {
                         mp.getDisplayName(),
                         mp.getPersonalityPrompt(),
                         mp.getPhotoUrl(),// 엔티티에 없다면 null 리턴
-                        mp.getVoiceCloneId()
+                        mp.getVoiceCloneId(),
+                        mp.getReplyCacheEnabled()
                 ));
     }
 
 
     // ---- Helpers ----
 
-    /** FREE=100, SILVER=500, GOLD=700 */
-    private enum Plan {
-        FREE(100), SILVER(500), GOLD(700);
-        final int dailyLimit; Plan(int v){ this.dailyLimit = v; }
-        static Plan safe(String s){
-            try { return Plan.valueOf(s.toUpperCase()); } catch (Exception e){ return FREE; }
+    /** 사용자/요금제 조회 + 쿼터 예약 + 시스템 프롬프트 준비 (DB 접근 가능, 블로킹) */
+    private Turn begin(String email, String userText){
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+
+        Entitlements ent = entitlementService.of(user); // FREE/SILVER/GOLD
+
+        int inputCount = TextMetrics.countNonWhitespace(userText); // 기본: 공백 제외 코드포인트 수
+        QuotaLedger.Reservation reservation = reserve(user.getId(), inputCount, ent); // 벤더 호출 전 원자적 예약
+        try {
+            // 시스템 프롬프트: displayName + personalityPrompt (렌더링·이스케이프 결과 캐시)
+            PromptCache.Compiled prompt = promptCache.get(user.getId());
+            return new Turn(user.getId(), ent.dailyChatChars(), reservation, prompt);
+        } catch (RuntimeException e) {
+            quotaLedger.refund(reservation);
+            throw e;
         }
     }
 
-    /** User 엔티티에 plan/membership/tier 중 존재하는 필드를 찾아 사용. 없으면 FREE */
-    private Plan resolvePlan(User user){
-        for (String fieldName : new String[]{"plan", "membership", "tier"}) {
-            try {
-                Field f = user.getClass().getDeclaredField(fieldName);
-                f.setAccessible(true);
-                Object v = f.get(user);
-                if (v != null) return Plan.safe(v.toString());
-            } catch (Exception ignore) {}
-        }
-        return Plan.FREE;
+    /** 답장: 반복되는 짧은 메시지면 답장 캐시 우선 (opt-in), 아니면 OpenAI 호출 (최근 대화 포함) */
+    private Mono<String> reply(Turn turn, String userText){
+        ReplyCache.Key cacheKey = replyCache.keyFor(turn.prompt(), DEFAULT_MODEL, userText);
+        String cached = cacheKey != null ? replyCache.get(cacheKey) : null;
+        if (cached != null) return Mono.just(cached);
+
+        return openAi.chat(DEFAULT_MODEL, turn.prompt().escapedUtf8(), history.recent(turn.userId()), userText)
+                .doOnNext(reply -> { if (cacheKey != null) replyCache.put(cacheKey, reply); });
     }
 
-    /** 공백 제외 글자수(코드포인트) 카운트 */
-    private int countCharacters(String text){
-        if (text == null) return 0;
-        int i = 0, n = text.length(), c = 0;
-        while (i < n){
-            int cp = text.codePointAt(i);
-            i += Character.charCount(cp);
-            if (Character.isWhitespace(cp)) continue; // 공백 제외
-            c++;
-        }
-        return c;
+    /** 예약 반환 후 잔여 글자 */
+    private int refundAndRemaining(Turn turn){
+        quotaLedger.refund(turn.reservation());
+        return Math.max(0, turn.limit() - quotaLedger.used(turn.userId()));
     }
 
-    private String buildSystemPrompt(MemoryProfile mp){
-        String name = (mp != null && mp.getDisplayName() != null) ? mp.getDisplayName().trim() : "고인";
-        String persona = (mp != null && mp.getPersonalityPrompt() != null) ? mp.getPersonalityPrompt().trim() : "";
-        return """
-        당신은 '%s'의 말투와 성격을 반영해 대화합니다.
-        - 인격 설명: %s
-        - 사용자에게 위로와 공감을 우선합니다.
-        - 과장 없이 담백하고 진심 어린 어조를 유지합니다.
-        """.formatted(name, persona.isEmpty() ? "설정 없음" : persona);
+    /** 쿼터 예약. 한도를 넘으면 429 */
+    private QuotaLedger.Reservation reserve(Long userId, int inputCount, Entitlements ent){
+        QuotaLedger.Reservation r = quotaLedger.reserve(userId, inputCount, ent.dailyChatChars());
+        if (r == null) {
+            int remaining = Math.max(0, ent.dailyChatChars() - quotaLedger.used(userId));
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "일일 입력 글자 제한 초과 (남은 글자: " + remaining + ", 요금제: " + ent.plan().name() + ")");
+        }
+        return r;
     }
+
+    private record Turn(Long userId, int limit, QuotaLedger.Reservation reservation, PromptCache.Compiled prompt) {}
 }
@@ -1,196 +1,236 @@
 package com.example.eternaltalk.service;
 
-import com.example.eternaltalk.client.HeygenClient;
-import com.example.eternaltalk.client.ElevenLabsClient;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.common.TextMetrics;
 import com.example.eternaltalk.domain.User;
 import com.example.eternaltalk.domain.memory.MemoryProfile;
 import com.example.eternaltalk.domain.video.VideoRequest;
 import com.example.eternaltalk.dto.VideoDtos;
 import com.example.eternaltalk.repository.MemoryProfileRepository;
 import com.example.eternaltalk.repository.UserRepository;
+import com.example.eternaltalk.service.chat.PromptCache;
+import com.example.eternaltalk.repository.VideoLastGeneratedRepository;
 import com.example.eternaltalk.repository.VideoRequestRepository;
+import com.example.eternaltalk.service.entitlement.EntitlementService;
+import com.example.eternaltalk.service.entitlement.Entitlements;
+import com.example.eternaltalk.service.video.VideoPipeline;
+import com.example.eternaltalk.service.video.VideoStatusHub;
 import com.example.eternaltalk.storage.S3Uploader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.Optional;
 
 @Service
 public class VideoService {
 
-    private final HeygenClient heygen;
-    private final ElevenLabsClient eleven; // 텍스트→mp3 생성(voice* 로직 재사용)
+    // 텍스트 영상의 기본 ElevenLabs 보이스 (제공 보이스 중 하나)
+    private static final String DEFAULT_VOICE_ID = "EXAVITQu4vr4xnSDxMaL";
+
+    private final VideoPipeline pipeline;
     private final UserRepository userRepository;
     private final MemoryProfileRepository memoryProfileRepository;
     private final VideoRequestRepository videoRequestRepository;
     private final S3Uploader s3;
+    private final VideoLastGeneratedRepository videoLastGeneratedRepository;
+    private final EntitlementService entitlementService;
+    private final PromptCache promptCache;
+    private final JpaExecutor jpa;
+    private final VideoStatusHub statusHub;
+    private final DataSize photoMaxSize;
+    private final Duration watchMaxWait;
+    private final Duration watchHeartbeat;
 
     public VideoService(
-            HeygenClient heygen,
-            ElevenLabsClient eleven,
+            VideoPipeline pipeline,
             UserRepository userRepository,
             MemoryProfileRepository memoryProfileRepository,
             VideoRequestRepository videoRequestRepository,
-            S3Uploader s3
+            S3Uploader s3,
+            VideoLastGeneratedRepository videoLastGeneratedRepository,
+            EntitlementService entitlementService,
+            PromptCache promptCache,
+            JpaExecutor jpa,
+            VideoStatusHub statusHub,
+            @Value("${app.upload.photo-max-size:20MB}") DataSize photoMaxSize,
+            @Value("${video.status-stream.max-wait:100s}") Duration watchMaxWait,
+            @Value("${video.status-stream.heartbeat:15s}") Duration watchHeartbeat
     ) {
-        this.heygen = heygen;
-        this.eleven = eleven;
+        this.pipeline = pipeline;
         this.userRepository = userRepository;
         this.memoryProfileRepository = memoryProfileRepository;
         this.videoRequestRepository = videoRequestRepository;
         this.s3 = s3;
+        this.videoLastGeneratedRepository = videoLastGeneratedRepository;
+        this.entitlementService = entitlementService;
+        this.promptCache = promptCache;
+        this.jpa = jpa;
+        this.statusHub = statusHub;
+        this.photoMaxSize = photoMaxSize;
+        this.watchMaxWait = watchMaxWait;
+        this.watchHeartbeat = watchHeartbeat;
     }
 
-    /** 프론트가 텍스트만 줄 때: 서버 내부에서 TTS 후 generateFromAudio 재사용 */
-    @Transactional
-    public VideoDtos.GenerateResponse generateFromText(String email, String text) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        // (선택) 글자수/이모지 제한 등 기존 규칙 검증
-        if (!isValidShortKorean(text)) {
-            throw new IllegalArgumentException("텍스트는 한글 15자(공백/이모지 제외) 이내여야 합니다.");
-        }
-
-        // 1) TTS → mp3 바이트 (ElevenLabs 사용)
-        byte[] mp3 = synthesizeToMp3(text);
-
-        // 2) mp3를 S3에 올리고 presigned URL 획득(현재 12h 유효)
-        String audioKey = "voice/" + user.getId() + "/" + nowTs() + ".mp3";
-        String audioUrl = s3.uploadBytes(audioKey, mp3, "audio/mpeg");
-
-        // 3) 동일 로직 재사용
-        return generateFromAudio(email, audioUrl);
+    /**
+     * 프론트가 텍스트만 줄 때: 검증 후 작업만 등록하고 바로 jobId 반환.
+     * TTS → 오디오 URL → HeyGen 생성 요청은 VideoPipeline 이 단계별로 (진행은 /status/{jobId}, /status/{jobId}/stream)
+     */
+    public Mono<VideoDtos.GenerateResponse> generateFromText(String email, String text) {
+        return enqueue(email, text, null);
     }
 
-    /** 이미 mp3 URL이 있을 때: 사진 URL + 오디오 URL로 HeyGen에 생성 요청 */
-    @Transactional
-    public VideoDtos.GenerateResponse generateFromAudio(String email, String audioUrl) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        MemoryProfile profile = memoryProfileRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new IllegalStateException("프로필이 없습니다. 먼저 /api/video/upload-photo 로 사진을 업로드하세요."));
-
-        if (profile.getPhotoUrl() == null || profile.getPhotoUrl().isBlank()) {
-            throw new IllegalStateException("사진 URL이 비어 있습니다. /api/video/upload-photo 먼저 호출하세요.");
-        }
+    /** 이미 mp3 URL이 있을 때: 사진 URL + 오디오 URL로 HeyGen 생성 요청 단계부터 */
+    public Mono<VideoDtos.GenerateResponse> generateFromAudio(String email, String audioUrl) {
+        return enqueue(email, null, audioUrl);
+    }
 
-        // 1) HeyGen Avatar IV 생성(사진 1장 + 오디오 URL)
-        String videoId = heygen.createAvatarIVVideo(
-                profile.getPhotoUrl(),
-                audioUrl,
-                1280, 720, // 16:9 (무료/플랜 제한 고려)
-                "EternalTalk " + nowTs()
-        );
-
-        // 2) 우리 DB에 job 기록
-        VideoRequest vr = VideoRequest.builder()
-                .userId(user.getId())
-                .jobId(videoId)
-                .status("PROCESSING")
-                .photoUrl(profile.getPhotoUrl())
-                .audioUrl(audioUrl)
-                .build();
-        videoRequestRepository.save(vr);
-
-        return new VideoDtos.GenerateResponse(videoId, "PROCESSING");
+    /** 상태 조회: DB 만 읽는다 (HeyGen 상태는 HeygenStatusPoller 가 백그라운드에서 반영) */
+    public Mono<VideoDtos.StatusResponse> status(String email, String jobId) {
+        return jpa.call(() -> {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+
+            VideoRequest vr = videoRequestRepository.findByJobIdAndUserId(jobId, user.getId())
+                    .orElseThrow(() -> new IllegalArgumentException("해당 jobId가 없습니다."));
+            return new VideoDtos.StatusResponse(vr.getStatus(), "DONE".equals(vr.getStatus()) ? vr.getResultUrl() : null,
+                    vr.getStage(), vr.getError());
+        });
     }
 
-    /** 상태 조회: HeyGen status → DB 반영 → 응답 반환 */
-    @Transactional
-    public VideoDtos.StatusResponse status(String email, String jobId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        VideoRequest vr = videoRequestRepository.findByJobIdAndUserId(jobId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("해당 jobId가 없습니다."));
-
-        HeygenClient.Status s = heygen.getVideoStatus(jobId);
-        String st = s.status() != null ? s.status().toUpperCase() : "PENDING";
-
-        switch (st) {
-            case "COMPLETED" -> {
-                vr.setStatus("DONE");
-                vr.setResultUrl(s.videoUrl());
-                videoRequestRepository.save(vr);
-                return new VideoDtos.StatusResponse("DONE", s.videoUrl());
-            }
-            case "FAILED" -> {
-                vr.setStatus("ERROR");
-                videoRequestRepository.save(vr);
-                return new VideoDtos.StatusResponse("ERROR", null);
-            }
-            default -> {
-                if (!"PROCESSING".equals(vr.getStatus())) {
-                    vr.setStatus("PROCESSING");
-                    videoRequestRepository.save(vr);
-                }
-                return new VideoDtos.StatusResponse("PROCESSING", null);
-            }
-        }
+    /**
+     * 완료 알림 구독(SSE): 현재 상태를 한 번 보내고, 아직 안 끝났으면(PENDING/PROCESSING) DONE/ERROR 알림이 올 때까지 대기.
+     * 대기 중에는 스레드/커넥션을 쓰지 않고 heartbeat 주석만 보낸다. max-wait 까지 안 끝나면 스트림을 닫음(클라이언트 재연결)
+     */
+    public Flux<ServerSentEvent<VideoDtos.StatusResponse>> watch(String email, String jobId) {
+        return Flux.defer(() -> {
+            VideoStatusHub.Waiter waiter = statusHub.register(jobId); // DB 를 읽기 전에 등록해야 사이에 온 알림을 놓치지 않음
+            return status(email, jobId)
+                    .flatMapMany(current -> {
+                        if ("DONE".equals(current.status) || "ERROR".equals(current.status)) return Flux.just(statusEvent(current));
+                        Flux<ServerSentEvent<VideoDtos.StatusResponse>> done = waiter.result()
+                                .map(e -> statusEvent(new VideoDtos.StatusResponse(e.status(),
+                                        "DONE".equals(e.status()) ? e.videoUrl() : null, e.stage(), e.error())))
+                                .flux();
+                        Flux<ServerSentEvent<VideoDtos.StatusResponse>> heartbeats = Flux.interval(watchHeartbeat)
+                                .map(i -> ServerSentEvent.<VideoDtos.StatusResponse>builder().comment("keepalive").build());
+                        return Flux.just(statusEvent(current))
+                                .concatWith(Flux.merge(done, heartbeats.takeUntilOther(done))
+                                        .take(watchMaxWait));
+                    })
+                    .doFinally(signal -> waiter.dispose());
+        });
     }
 
-    /** 사진 업로드: S3 업로드 후 MemoryProfile.photoUrl 저장/갱신 */
-    @Transactional
-    public VideoDtos.UploadPhotoResponse uploadPhoto(String email, MultipartFile file) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        try {
-            if (file == null || file.isEmpty()) {
-                throw new IllegalArgumentException("업로드할 파일이 없습니다.");
-            }
-
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                throw new IllegalArgumentException("이미지 파일만 업로드할 수 있습니다.");
-            }
-
-            // 확장자 추정
-            String ext = "jpg";
-            if (contentType.contains("png")) ext = "png";
-            else if (contentType.contains("jpeg")) ext = "jpg";
-            else if (contentType.contains("webp")) ext = "webp";
-
-            byte[] bytes = file.getBytes();
-            String key = "photo/" + user.getId() + "/" + nowTs() + "." + ext;
-
-            // S3 업로드 + presigned URL 획득
-            String photoUrl = s3.uploadBytes(key, bytes, contentType);
-
-            // MemoryProfile 저장/갱신
-            Optional<MemoryProfile> opt = memoryProfileRepository.findByUserId(user.getId());
-            MemoryProfile profile = opt.orElseGet(() -> {
-                MemoryProfile p = new MemoryProfile();
-                p.setUserId(user.getId());
-                return p;
-            });
-            profile.setPhotoUrl(photoUrl);
-            memoryProfileRepository.save(profile);
-
-            return new VideoDtos.UploadPhotoResponse(photoUrl);
-
-        } catch (Exception e) {
-            throw new RuntimeException("사진 업로드 실패: " + e.getMessage(), e);
+    /**
+     * 사진 업로드: S3 업로드 후 MemoryProfile.photoUrl 저장/갱신.
+     * S3 업로드(블로킹)는 트랜잭션 밖 boundedElastic 에서, 프로필 쓰기만 짧은 트랜잭션으로 (업로드 동안 커넥션을 잡지 않음)
+     */
+    public Mono<VideoDtos.UploadPhotoResponse> uploadPhoto(String email, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("업로드할 파일이 없습니다."));
+        }
+        if (file.getSize() > photoMaxSize.toBytes()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "사진은 " + photoMaxSize.toMegabytes() + "MB 이하여야 합니다."));
         }
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return Mono.error(new IllegalArgumentException("이미지 파일만 업로드할 수 있습니다."));
+        }
+
+        // 확장자 추정
+        String ext;
+        if (contentType.contains("png")) ext = "png";
+        else if (contentType.contains("webp")) ext = "webp";
+        else ext = "jpg";
+
+        return jpa.call(() -> userRepository.findByEmail(email)
+                        .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다.")).getId())
+                .flatMap(userId -> Mono.fromCallable(() -> {
+                                    String key = "photo/" + userId + "/" + nowTs() + "." + ext;
+                                    // S3 업로드 + presigned URL 획득 (업로드 스트림을 길이와 함께 그대로 전달, 힙에 올리지 않음)
+                                    return s3.upload(key, file, file.getSize(), contentType);
+                                })
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .onErrorMap(IOException.class, e -> new RuntimeException("사진 업로드 실패: " + e.getMessage(), e))
+                                .flatMap(photoUrl -> jpa.tx(() -> {
+                                    // MemoryProfile 저장/갱신
+                                    MemoryProfile profile = memoryProfileRepository.findByUserId(userId).orElseGet(() -> {
+                                        MemoryProfile p = new MemoryProfile();
+                                        p.setUserId(userId);
+                                        return p;
+                                    });
+                                    profile.setPhotoUrl(photoUrl);
+                                    memoryProfileRepository.save(profile);
+                                    return photoUrl;
+                                }))
+                                .doOnNext(photoUrl -> promptCache.invalidate(userId))) // 프로필 변경 → 시스템 프롬프트 캐시 무효화
+                .map(VideoDtos.UploadPhotoResponse::new);
     }
 
     // === 헬퍼들 ===
-    private byte[] synthesizeToMp3(String text) {
-        // 기본 보이스 ID를 하나 정해줘야 함.
-        // 예를 들어, 환경 변수로 VOICE_ID를 받아오거나, 프로젝트에서 공통 보이스 ID를 관리하도록 해.
-        String defaultVoiceId = "EXAVITQu4vr4xnSDxMaL"; // ElevenLabs 기본 제공 보이스 중 하나 (예시)
-
-        return eleven.tts(defaultVoiceId, text);
+    private static ServerSentEvent<VideoDtos.StatusResponse> statusEvent(VideoDtos.StatusResponse s) {
+        return ServerSentEvent.builder(s).event("status").build();
     }
 
+    /** 검증(사용자/요금제/사진/생성 간격) + 작업 행 저장은 한 트랜잭션, 첫 단계 시작은 커밋 후 */
+    private Mono<VideoDtos.GenerateResponse> enqueue(String email, String text, String audioUrl) {
+        return jpa.tx(() -> {
+                    User user = userRepository.findByEmail(email)
+                            .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+
+                    Entitlements ent = entitlementService.of(user);
+                    if (text != null && !TextMetrics.isKoreanWithin(text, ent.videoMaxChars())) {
+                        throw new IllegalArgumentException("텍스트는 한글 " + ent.videoMaxChars() + "자(공백/이모지 제외) 이내여야 합니다.");
+                    }
+
+                    MemoryProfile profile = memoryProfileRepository.findByUserId(user.getId())
+                            .orElseThrow(() -> new IllegalStateException("프로필이 없습니다. 먼저 /api/video/upload-photo 로 사진을 업로드하세요."));
+
+                    if (profile.getPhotoUrl() == null || profile.getPhotoUrl().isBlank()) {
+                        throw new IllegalStateException("사진 URL이 비어 있습니다. /api/video/upload-photo 먼저 호출하세요.");
+                    }
+
+                    VideoRequest vr = pipeline.create(user.getId(), profile.getPhotoUrl(),
+                            text != null ? DEFAULT_VOICE_ID : null, text, audioUrl);
+                    // 요금제별 영상 생성 간격 (등록 시점 기준: 대기 중인 작업을 여러 개 쌓지 못하게).
+                    // 행의 created_at 으로 기록해 두면 파이프라인이 실패했을 때 그 기록만 되돌릴 수 있다. 429 면 행도 롤백
+                    claimCooldown(user.getId(), ent, vr.getCreatedAt());
+                    return vr;
+                })
+                .flatMap(vr -> jpa.call(() -> {
+                    pipeline.kick(vr);
+                    return new VideoDtos.GenerateResponse(vr.getJobId(), vr.getStatus());
+                }));
+    }
 
-    private boolean isValidShortKorean(String s) {
-        return s != null && s.trim().length() > 0 && s.trim().length() <= 15;
+    /**
+     * 마지막 생성 시각 + 요금제 간격 이전이면 429, 아니면 now 로 기록.
+     * 확인과 기록을 조건부 UPDATE/INSERT IGNORE 한 문장씩으로 해 동시 요청 중 하나만 통과한다.
+     */
+    private void claimCooldown(Long userId, Entitlements ent, LocalDateTime now) {
+        if (ent.videoCooldown().isZero()) return;
+        if (videoLastGeneratedRepository.touchIfBefore(userId, now.minus(ent.videoCooldown()), now) > 0) return;
+        if (videoLastGeneratedRepository.insertIfAbsent(userId, now) > 0) return;
+
+        long waitSec = videoLastGeneratedRepository.findByUserId(userId)
+                .map(last -> Duration.between(now, last.getLastGeneratedAt().plus(ent.videoCooldown())).toSeconds())
+                .orElse(0L);
+        throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "영상 생성 간격 제한 (" + Math.max(waitSec, 1) + "초 후 가능, 요금제: " + ent.plan().name() + ")");
     }
 
     private String nowTs() {
@@ -1,77 +1,149 @@
 package com.example.eternaltalk.service;
 
 import com.example.eternaltalk.client.ElevenLabsClient;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.common.TextMetrics;
 import com.example.eternaltalk.domain.User;
 import com.example.eternaltalk.domain.memory.MemoryProfile;
+import com.example.eternaltalk.domain.voice.VoiceJob;
 import com.example.eternaltalk.dto.VoiceDtos;
 import com.example.eternaltalk.repository.MemoryProfileRepository;
 import com.example.eternaltalk.repository.UserRepository;
+import com.example.eternaltalk.service.chat.PromptCache;
+import com.example.eternaltalk.service.entitlement.EntitlementService;
+import com.example.eternaltalk.service.entitlement.Entitlements;
+import com.example.eternaltalk.service.voice.TtsAudioCache;
+import com.example.eternaltalk.service.voice.VoiceJobService;
+import com.example.eternaltalk.service.voice.VoiceRetirement;
 import com.example.eternaltalk.storage.S3Uploader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
-
-import java.text.SimpleDateFormat;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 @Service
 public class VoiceService {
 
+    private static final Logger log = LoggerFactory.getLogger(VoiceService.class);
+
     private final UserRepository userRepository;
     private final MemoryProfileRepository memoryProfileRepository;
     private final ElevenLabsClient eleven;
+    private final TtsAudioCache ttsAudio;
+    private final VoiceJobService voiceJobs;
+    private final VoiceRetirement voiceRetirement;
     private final S3Uploader s3;
+    private final EntitlementService entitlementService;
+    private final PromptCache promptCache;
+    private final JpaExecutor jpa;
+    private final DataSize sampleMaxSize;
 
     public VoiceService(UserRepository userRepository,
                         MemoryProfileRepository memoryProfileRepository,
                         ElevenLabsClient eleven,
-                        S3Uploader s3) {
+                        TtsAudioCache ttsAudio,
+                        VoiceJobService voiceJobs,
+                        VoiceRetirement voiceRetirement,
+                        S3Uploader s3,
+                        EntitlementService entitlementService,
+                        PromptCache promptCache,
+                        JpaExecutor jpa,
+                        @Value("${app.upload.voice-sample-max-size:50MB}") DataSize sampleMaxSize) {
         this.userRepository = userRepository;
         this.memoryProfileRepository = memoryProfileRepository;
         this.eleven = eleven;
+        this.ttsAudio = ttsAudio;
+        this.voiceJobs = voiceJobs;
+        this.voiceRetirement = voiceRetirement;
         this.s3 = s3;
+        this.entitlementService = entitlementService;
+        this.promptCache = promptCache;
+        this.jpa = jpa;
+        this.sampleMaxSize = sampleMaxSize;
     }
 
     // POST /api/voice/generate
-    public String generate(String email, String text){
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        // 서비스 레벨 요금제/쿼터 규칙 검사 훅 (영상에서만 적용 → 현재 패스)
-        // checkPlanRules(user);
-
-        MemoryProfile mp = memoryProfileRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("메모리 프로필이 없습니다. 먼저 프로필을 생성해 주세요."));
-
-        if (isBlank(mp.getVoiceCloneId())) {
-            throw new IllegalArgumentException("voice_id가 없습니다. 먼저 샘플을 등록해 주세요.");
-        }
+    //  - 검증(DB)은 JPA 풀, 음성은 TTS 캐시(같은 보이스·문장이면 합성/업로드 없이 presigned URL 만 새로 발급)
+    public Mono<String> generate(String email, String text){
+        return jpa.call(() -> voiceProfileFor(email, text))
+                .flatMap(mp -> ttsAudio.audioUrl(mp.getVoiceCloneId(), text)); // { audioUrl }
+    }
 
-        if (!isValidKoreanUnderLimit(text, 15)) {
-            throw new IllegalArgumentException("text는 한글 기준 공백/이모지 제외 15자 이내여야 합니다.");
-        }
+    // POST /api/voice/generate-async
+    //  - 검증 후 작업만 등록하고 즉시 jobId 반환, 합성은 워커 풀에서 (결과는 GET /api/voice/jobs/{jobId})
+    public Mono<VoiceDtos.JobResponse> generateAsync(String email, String text){
+        return jpa.call(() -> voiceProfileFor(email, text))
+                .flatMap(mp -> voiceJobs.submit(mp.getUserId(), mp.getVoiceCloneId(), text))
+                .map(this::toJobResponse);
+    }
 
-        byte[] mp3 = eleven.tts(mp.getVoiceCloneId(), text);
-        String key = buildS3Key(user.getId());
-        return s3.uploadBytes(key, mp3, "audio/mpeg"); // { audioUrl }
+    // GET /api/voice/jobs/{jobId}
+    public Mono<VoiceDtos.JobResponse> job(String email, String jobId){
+        return jpa.call(() -> userRepository.findByEmail(email)
+                        .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다.")))
+                .flatMap(user -> voiceJobs.find(user.getId(), jobId))
+                .map(this::toJobResponse);
     }
 
     // POST /api/voice/upload-sample
-    public String uploadSample(String email, MultipartFile file){
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        if (file == null || file.isEmpty()) throw new IllegalArgumentException("샘플 오디오 파일이 필요합니다.");
-        byte[] bytes;
-        try { bytes = file.getBytes(); }
-        catch (Exception e){ throw new IllegalArgumentException("파일 읽기에 실패했습니다."); }
-
-        String voiceId = eleven.createOrUpdateVoice(user.getId(), bytes, file.getOriginalFilename());
+    //  - 샘플은 힙에 올리지 않고 업로드 스트림(큰 파트는 디스크 임시 파일)에서 ElevenLabs 로 바로 전송
+    //  - 샘플 sha256 이 현재 보이스를 만든 샘플과 같으면 벤더 호출 없이 기존 voice_id 반환
+    //  - 다른 샘플이면 새 보이스 생성 → 프로필 교체. 이전 보이스는 진행 중인 작업이 쓸 수 있으므로
+    //    같은 트랜잭션에서 VoiceRetirement 에 넘기고, 아무도 쓰지 않게 되면 스윕이 삭제한다
+    //  - 교체는 프로필 행을 FOR UPDATE 로 잠근 짧은 트랜잭션에서 (벤더 호출 동안은 잠그지 않음).
+    //    같은 샘플의 동시 업로드가 먼저 반영됐으면 이쪽이 만든 보이스를 지우고 그 voice_id 를 쓴다
+    //  - 교체 트랜잭션이 실패하면 새 보이스를 바로 지우고, 요청이 취소되면 (교체가 커밋됐을 수도 있으므로)
+    //    VoiceRetirement 에 넘겨 프로필에 반영되지 않은 경우에만 지워지게 한다
+    public Mono<String> uploadSample(String email, MultipartFile file){
+        if (file == null || file.isEmpty()) return Mono.error(new IllegalArgumentException("샘플 오디오 파일이 필요합니다."));
+        if (file.getSize() > sampleMaxSize.toBytes()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "샘플 파일은 " + sampleMaxSize.toMegabytes() + "MB 이하여야 합니다."));
+        }
 
-        MemoryProfile mp = memoryProfileRepository.findByUserId(user.getId())
-                .orElseGet(() -> MemoryProfile.builder().userId(user.getId()).build());
-        mp.setVoiceCloneId(voiceId);
-        memoryProfileRepository.save(mp);
-        return voiceId;
+        Mono<String> sampleHash = Mono.fromCallable(() -> sha256(file))
+                .subscribeOn(Schedulers.boundedElastic()); // 업로드 스트림 읽기(블로킹)
+
+        return sampleHash.zipWith(jpa.call(() -> {
+                    User user = userRepository.findByEmail(email)
+                            .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+                    return profileOf(user.getId());
+                }))
+                .flatMap(t -> {
+                    String hash = t.getT1();
+                    MemoryProfile current = t.getT2();
+                    if (!isBlank(current.getVoiceCloneId()) && hash.equals(current.getVoiceSampleHash())) {
+                        return Mono.just(current.getVoiceCloneId()); // 같은 샘플 → 기존 보이스 재사용
+                    }
+                    Long userId = current.getUserId();
+                    return eleven.createVoice(userId, file, file.getSize(), file.getOriginalFilename())
+                            .flatMap(voiceId -> jpa.tx(() -> replaceVoice(userId, voiceId, hash))
+                                    .onErrorResume(e -> {
+                                        deleteVoice(voiceId); // 롤백됨 → 아무도 쓰지 않는 새 보이스
+                                        return Mono.error(e);
+                                    })
+                                    .doOnCancel(() -> retireLater(userId, voiceId)))
+                            .map(r -> {
+                                deleteVoice(r.orphan()); // 경합에서 진 새 보이스
+                                return r.voiceId();
+                            });
+                });
     }
 
     // GET /api/voice/samples (테스트용)
@@ -86,41 +158,94 @@ public class VoiceService {
         ));
     }
 
-    private String buildS3Key(Long userId){
-        String ts = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
-        return "voices/" + userId + "/" + ts + ".mp3";
+    /** 음성 생성 검증: 사용자/프로필/voice_id/요금제 글자수 (블로킹, JPA 풀에서 호출) */
+    private MemoryProfile voiceProfileFor(String email, String text){
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+
+        // 요금제별 한도 (캐시)
+        Entitlements ent = entitlementService.of(user);
+
+        MemoryProfile mp = memoryProfileRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new IllegalArgumentException("메모리 프로필이 없습니다. 먼저 프로필을 생성해 주세요."));
+
+        if (isBlank(mp.getVoiceCloneId())) {
+            throw new IllegalArgumentException("voice_id가 없습니다. 먼저 샘플을 등록해 주세요.");
+        }
+
+        if (!TextMetrics.isKoreanWithin(text, ent.voiceMaxChars())) {
+            throw new IllegalArgumentException("text는 한글 기준 공백/이모지 제외 " + ent.voiceMaxChars() + "자 이내여야 합니다.");
+        }
+        return mp;
     }
-    private boolean isBlank(String s){ return s == null || s.isBlank(); }
 
-    // 한글 기준 15자 이내(공백/이모지 제외)
-    public static boolean isValidKoreanUnderLimit(String input, int limit){
-        if (input == null) return false;
-        int count = 0, i = 0, n = input.length();
-        while (i < n){
-            int cp = input.codePointAt(i);
-            i += Character.charCount(cp);
-            if (Character.isWhitespace(cp)) continue;     // 공백 제외
-            if (isEmoji(cp)) continue;                     // 이모지 제외
-
-            Character.UnicodeBlock b = Character.UnicodeBlock.of(cp);
-            if (b == Character.UnicodeBlock.HANGUL_SYLLABLES
-                    || b == Character.UnicodeBlock.HANGUL_JAMO
-                    || b == Character.UnicodeBlock.HANGUL_COMPATIBILITY_JAMO
-                    || b == Character.UnicodeBlock.HANGUL_JAMO_EXTENDED_A
-                    || b == Character.UnicodeBlock.HANGUL_JAMO_EXTENDED_B) {
-                count++;
-                if (count > limit) return false;
+    private VoiceDtos.JobResponse toJobResponse(VoiceJob job){
+        String audioUrl = VoiceJobService.DONE.equals(job.getStatus()) && job.getS3Key() != null
+                ? s3.presign(job.getS3Key()) : null;
+        return new VoiceDtos.JobResponse(job.getJobId(), job.getStatus(), audioUrl, job.getError());
+    }
+
+    /** 프로필 조회, 없으면 생성 (동시 생성은 uk_memory_profile_user 로 하나만 남고 나머지는 다시 조회) */
+    private MemoryProfile profileOf(Long userId){
+        return memoryProfileRepository.findByUserId(userId).orElseGet(() -> {
+            try {
+                return memoryProfileRepository.saveAndFlush(MemoryProfile.builder().userId(userId).build());
+            } catch (DataIntegrityViolationException dup) {
+                return memoryProfileRepository.findByUserId(userId).orElseThrow(() -> dup);
             }
+        });
+    }
+
+    /**
+     * 트랜잭션 안에서 호출. 프로필을 잠그고 새 보이스로 교체, 이전 보이스는 지연 삭제 대기로.
+     * 그사이 같은 샘플로 만든 보이스가 이미 반영됐으면 그것을 유지하고 새 보이스를 지울 대상으로 돌려준다.
+     */
+    private VoiceSwap replaceVoice(Long userId, String voiceId, String hash){
+        MemoryProfile mp = memoryProfileRepository.findForUpdateByUserId(userId)
+                .orElseThrow(() -> new IllegalStateException("프로필이 없습니다."));
+        String previous = mp.getVoiceCloneId();
+        if (!isBlank(previous) && hash.equals(mp.getVoiceSampleHash())) {
+            return new VoiceSwap(previous, voiceId); // 같은 샘플의 동시 업로드가 먼저 반영됨
         }
-        return count >= 1 && count <= limit;
+        mp.setVoiceCloneId(voiceId);
+        mp.setVoiceSampleHash(hash);
+        memoryProfileRepository.save(mp);
+        voiceRetirement.retire(userId, previous);
+        promptCache.invalidate(userId); // 프로필 변경 → 시스템 프롬프트 캐시 무효화
+        return new VoiceSwap(voiceId, null);
+    }
+
+    /** 아무도 쓰지 않는 보이스 즉시 삭제 (백그라운드, 벤더 보이스 수를 사용자당 1개로 유지) */
+    private void deleteVoice(String voiceId){
+        if (isBlank(voiceId)) return;
+        eleven.deleteVoice(voiceId)
+                .subscribe(null, e -> log.warn("보이스 삭제 실패 voiceId={}: {}", voiceId, e.getMessage()));
+    }
+
+    /** 취소된 업로드의 새 보이스: 교체가 커밋됐는지 모르므로 스윕이 프로필을 확인한 뒤 삭제 */
+    private void retireLater(Long userId, String voiceId){
+        jpa.tx(() -> {
+                    voiceRetirement.retire(userId, voiceId);
+                    return voiceId;
+                })
+                .subscribe(null, e -> log.warn("보이스 삭제 대기 등록 실패 voiceId={}: {}", voiceId, e.getMessage()));
     }
-    private static boolean isEmoji(int cp){
-        return (cp >= 0x1F300 && cp <= 0x1FAFF)
-                || (cp >= 0x2600 && cp <= 0x27BF)
-                || (cp >= 0xFE00 && cp <= 0xFE0F)
-                || (cp >= 0x1F1E6 && cp <= 0x1F1FF);
+
+    /** @param voiceId 프로필에 반영된 보이스, @param orphan 바로 삭제할 보이스 (없으면 null) */
+    private record VoiceSwap(String voiceId, String orphan) {}
+
+    private static String sha256(InputStreamSource source) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(source.getInputStream(), md)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(md.digest());
     }
 
-    // 향후: 영상 간격/챗봇 글자 수 등 요금제 규칙 검사 위치
-    // private void checkPlanRules(User user) { ... }
+    private boolean isBlank(String s){ return s == null || s.isBlank(); }
 }
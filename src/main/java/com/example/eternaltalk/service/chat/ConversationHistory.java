@@ -0,0 +1,175 @@
+package com.example.eternaltalk.service.chat;
+
+import com.example.eternaltalk.client.OpenAiClient.OpenAiMessage;
+import com.example.eternaltalk.domain.chat.ChatMessage;
+import com.example.eternaltalk.repository.ChatMessageRepository;
+import com.example.eternaltalk.common.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 사용자별 최근 대화 기록.
+ * - 메모리: 사용자당 고정 크기 링 버퍼(최근 maxTurns 턴), 보관 사용자 수는 LRU 로 제한
+ * - DB: chat_message 에 비동기 배치 INSERT (write-behind). 큐 순서 = id 순서 = 대화 순서로 저장되도록
+ *   실패한 배치는 붙들고 있다가 새 메시지보다 먼저 다시 쓴다. 큐가 가득 찼는데 DB 도 받지 못하면 버리고
+ *   chat.history.dropped 로 센다
+ * send 핫패스는 캐시 미스(재시작/축출 직후)일 때만 DB 를 읽는다.
+ */
+@Component
+public class ConversationHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationHistory.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_message (user_id, role, content, created_at) VALUES (?, ?, ?, ?)";
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;   // 메시지 수 = 턴 수 * 2 (user + assistant)
+    private final int batchSize;
+    private final AsyncCache<Long, Ring> rings;
+    private final BlockingQueue<ChatMessage> pending;
+    private final Counter dropped;
+    /** 저장에 실패한 배치. 비기 전에는 큐에서 새로 꺼내지 않는다 (flush 락 안에서만 접근) */
+    private List<ChatMessage> failed = List.of();
+
+    public ConversationHistory(ChatMessageRepository chatMessageRepository,
+                               JdbcTemplate jdbcTemplate, MeterRegistry registry,
+                               @Value("${chat.history.max-turns:10}") int maxTurns,
+                               @Value("${chat.history.max-users:10000}") long maxUsers,
+                               @Value("${chat.history.batch-size:200}") int batchSize,
+                               @Value("${chat.history.queue-capacity:10000}") int queueCapacity) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = Math.max(2, maxTurns * 2);
+        this.batchSize = batchSize;
+        this.rings = Caffeine.newBuilder().maximumSize(maxUsers).buildAsync();
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = registry.counter("chat.history.dropped");
+    }
+
+    /** 오래된 순으로 최근 대화(최대 maxTurns 턴) 반환 */
+    public List<OpenAiMessage> recent(Long userId) {
+        return ring(userId).snapshot();
+    }
+
+    /** 한 턴(user → assistant)을 링 버퍼에 추가하고 DB 저장 큐에 넣는다 */
+    public void append(Long userId, String userText, String reply) {
+        String answer = reply != null ? reply : "";
+        ring(userId).addTurn(new OpenAiMessage("user", userText), new OpenAiMessage("assistant", answer));
+
+        LocalDateTime now = LocalDateTime.now();
+        enqueue(ChatMessage.builder().userId(userId).role("user").content(userText).createdAt(now).build());
+        enqueue(ChatMessage.builder().userId(userId).role("assistant").content(answer).createdAt(now).build());
+    }
+
+    /** 큐에 쌓인 메시지를 배치로 저장. 지난번 실패한 배치가 있으면 그것부터 (순서 유지) */
+    @Scheduled(fixedDelayString = "${chat.history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!failed.isEmpty()) {
+            if (!write(failed)) return; // 다음 주기에 다시
+            failed = List.of();
+        }
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                failed = batch;
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() { flush(); }
+
+    // ---- Helpers ----
+
+    /** 캐시 미스 적재(DB 조회)는 맵 락 밖에서 */
+    private Ring ring(Long userId) {
+        return CacheLoads.getOrLoad(rings, userId, this::load);
+    }
+
+    private Ring load(Long userId) {
+        List<ChatMessage> rows = chatMessageRepository.findByUserIdOrderByIdDesc(userId, PageRequest.of(0, capacity));
+        Ring ring = new Ring(capacity);
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            ChatMessage m = rows.get(i);
+            ring.add(new OpenAiMessage(m.getRole(), m.getContent()));
+        }
+        return ring;
+    }
+
+    private void enqueue(ChatMessage m) {
+        if (pending.offer(m)) return;
+        // 큐가 가득 차면 호출 스레드에서 먼저 비운다(역압). 앞선 메시지를 건너뛰어 저장하지 않도록 flush 로
+        flush();
+        if (!pending.offer(m)) {
+            dropped.increment();
+            log.error("chat_message 저장 큐가 가득 차 대화 기록을 버림 userId={} role={}", m.getUserId(), m.getRole());
+        }
+    }
+
+    private boolean write(List<ChatMessage> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, m) -> {
+                ps.setLong(1, m.getUserId());
+                ps.setString(2, m.getRole());
+                ps.setString(3, m.getContent());
+                ps.setTimestamp(4, Timestamp.valueOf(m.getCreatedAt()));
+            });
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("chat_message 배치 저장 실패 ({}건): {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /** 고정 크기 원형 버퍼. 가득 차면 가장 오래된 메시지를 덮어쓴다 */
+    private static final class Ring {
+        private final OpenAiMessage[] items;
+        private int head; // 가장 오래된 원소 위치
+        private int size;
+
+        Ring(int capacity) { this.items = new OpenAiMessage[capacity]; }
+
+        synchronized void addTurn(OpenAiMessage user, OpenAiMessage assistant) {
+            add(user);
+            add(assistant);
+        }
+
+        synchronized void add(OpenAiMessage m) {
+            if (size < items.length) {
+                items[(head + size) % items.length] = m;
+                size++;
+            } else {
+                items[head] = m;
+                head = (head + 1) % items.length;
+            }
+        }
+
+        synchronized List<OpenAiMessage> snapshot() {
+            List<OpenAiMessage> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) out.add(items[(head + i) % items.length]);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.eternaltalk.service.chat;
+
+import com.example.eternaltalk.domain.memory.MemoryProfile;
+import com.example.eternaltalk.repository.MemoryProfileRepository;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.example.eternaltalk.common.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 사용자별 렌더링된 시스템 프롬프트 캐시.
+ * MemoryProfile 을 한 번 렌더링 + JSON 이스케이프한 UTF-8 바이트를 보관한다.
+ * 프로필을 바꾸는 쪽(upsertProfile/uploadSample/uploadPhoto)이 invalidate 를 호출하므로
+ * 채팅 요청은 memory_profile 조회·포맷·이스케이프 없이 바이트를 그대로 요청 본문에 붙인다.
+ * invalidate 는 이 노드에만 적용되므로 다른 노드에서 바뀐 프로필은 ttl 안에 반영된다.
+ * 메모리는 보관 바이트 합계로 제한.
+ */
+@Component
+public class PromptCache {
+
+    private final MemoryProfileRepository memoryProfileRepository;
+    private final AsyncCache<Long, Compiled> cache;
+
+    public PromptCache(MemoryProfileRepository memoryProfileRepository,
+                       @Value("${chat.prompt-cache.max-bytes:16777216}") long maxBytes,
+                       @Value("${chat.prompt-cache.ttl:5m}") Duration ttl) {
+        this.memoryProfileRepository = memoryProfileRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .expireAfterWrite(ttl)
+                .weigher((Long userId, Compiled c) -> c.escapedUtf8().length)
+                .buildAsync();
+    }
+
+    /** 캐시 미스일 때만 memory_profile 1회 조회 (맵 락 밖에서, 가상 스레드 고정 없음) */
+    public Compiled get(Long userId) {
+        return CacheLoads.getOrLoad(cache, userId, id -> compile(memoryProfileRepository.findByUserId(id).orElse(null)));
+    }
+
+    public void invalidate(Long userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+    // ---- Helpers ----
+
+    private static Compiled compile(MemoryProfile mp) {
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(render(mp));
+        return new Compiled(
+                escaped,
+                mp == null || !Boolean.FALSE.equals(mp.getReplyCacheEnabled()));
+    }
+
+    private static String render(MemoryProfile mp) {
+        String name = (mp != null && mp.getDisplayName() != null) ? mp.getDisplayName().trim() : "고인";
+        String persona = (mp != null && mp.getPersonalityPrompt() != null) ? mp.getPersonalityPrompt().trim() : "";
+        return """
+        당신은 '%s'의 말투와 성격을 반영해 대화합니다.
+        - 인격 설명: %s
+        - 사용자에게 위로와 공감을 우선합니다.
+        - 과장 없이 담백하고 진심 어린 어조를 유지합니다.
+        """.formatted(name, persona.isEmpty() ? "설정 없음" : persona);
+    }
+
+    /**
+     * @param escapedUtf8 JSON 문자열 내용으로 이스케이프된 UTF-8 (앞뒤 따옴표 없음)
+     * @param replyCacheEnabled 프로필의 답장 캐시 허용 여부(킬 스위치)
+     */
+    public record Compiled(byte[] escapedUtf8, boolean replyCacheEnabled) {}
+}
@@ -0,0 +1,145 @@
+package com.example.eternaltalk.service.chat;
+
+import com.example.eternaltalk.domain.chat.ChatUsageDaily;
+import com.example.eternaltalk.repository.ChatUsageDailyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 일일 글자 쿼터 예약 장부.
+ * reserve(벤더 호출 전, 원자적 한도 검사) → commit(성공 시 사용량 저널에 기록) / refund(실패 시 반환).
+ * 사용자별 상태는 줄무늬(striped) 락으로 보호하며, 벤더 호출 동안 어떤 락/DB 행 락도 잡지 않는다.
+ */
+@Component
+public class QuotaLedger {
+
+    private static final int STRIPES = 64; // 2의 거듭제곱
+
+    private final ChatUsageDailyRepository chatUsageDailyRepository;
+    private final UsageJournal usageJournal;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Cache<Long, Entry> entries;
+    private final long refreshNanos;
+
+    public QuotaLedger(ChatUsageDailyRepository chatUsageDailyRepository,
+                       UsageJournal usageJournal,
+                       @Value("${chat.quota.refresh-ms:30000}") long refreshMs) {
+        this.chatUsageDailyRepository = chatUsageDailyRepository;
+        this.usageJournal = usageJournal;
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+        this.entries = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(30)).build();
+        this.refreshNanos = Duration.ofMillis(refreshMs).toNanos();
+    }
+
+    /** amount 만큼 예약. 한도 초과면 null */
+    public Reservation reserve(Long userId, int amount, int limit) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            Entry e = current(userId);
+            if (e.persisted + e.reserved + amount > limit) return null;
+            e.reserved += amount;
+            return new Reservation(userId, amount, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 예약 확정: 저널 기록(DB 는 배치로 지연 반영) 후 오늘 사용량(진행 중 예약 포함) 반환 */
+    public int commit(Reservation r) {
+        if (!r.settled.compareAndSet(false, true)) return used(r.userId);
+        try {
+            usageJournal.append(r.userId, r.entry.date, r.amount);
+        } catch (RuntimeException ex) {
+            release(r, false);
+            throw ex;
+        }
+        return release(r, true);
+    }
+
+    /** 예약 취소(벤더 실패/스트림 취소). 이미 정산된 예약이면 무시 */
+    public void refund(Reservation r) {
+        if (r.settled.compareAndSet(false, true)) release(r, false);
+    }
+
+    /** 오늘 사용량(진행 중 예약 포함) */
+    public int used(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            Entry e = current(userId);
+            return e.persisted + e.reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- Helpers ----
+
+    private int release(Reservation r, boolean committed) {
+        ReentrantLock lock = lockFor(r.userId);
+        lock.lock();
+        try {
+            r.entry.reserved -= r.amount;
+            if (committed) r.entry.persisted += r.amount;
+            return r.entry.persisted + r.entry.reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 스트라이프 락을 잡은 상태에서 호출. 날짜가 바뀌었거나 갱신 주기가 지났으면 DB 기준값 재적재 */
+    private Entry current(Long userId) {
+        LocalDate today = LocalDate.now();
+        Entry e = entries.getIfPresent(userId);
+        long now = System.nanoTime();
+        if (e == null || !e.date.equals(today)) {
+            e = new Entry(today);
+            e.persisted = loadPersisted(userId, today);
+            e.loadedAt = now;
+            entries.put(userId, e);
+        } else if (e.reserved == 0 && now - e.loadedAt > refreshNanos) {
+            // 다른 노드의 반영분을 따라잡기 위해 진행 중 예약이 없을 때만 갱신
+            e.persisted = loadPersisted(userId, today);
+            e.loadedAt = now;
+        }
+        return e;
+    }
+
+    private int loadPersisted(Long userId, LocalDate date) {
+        return chatUsageDailyRepository.findByUserIdAndUsageDate(userId, date)
+                .map(ChatUsageDaily::getUsedChars).orElse(0)
+                + usageJournal.pending(userId, date);
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return locks[Long.hashCode(userId) & (STRIPES - 1)];
+    }
+
+    private static final class Entry {
+        final LocalDate date;
+        int persisted; // DB 반영분 + 저널 미반영분 + 이 노드 확정분
+        int reserved;  // 진행 중 예약분
+        long loadedAt;
+        Entry(LocalDate date) { this.date = date; }
+    }
+
+    /** 예약 핸들. commit/refund 중 한 번만 정산된다 */
+    public static final class Reservation {
+        private final Long userId;
+        private final int amount;
+        private final Entry entry;
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+
+        private Reservation(Long userId, int amount, Entry entry) {
+            this.userId = userId; this.amount = amount; this.entry = entry;
+        }
+    }
+}
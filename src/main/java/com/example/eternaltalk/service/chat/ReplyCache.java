@@ -0,0 +1,125 @@
+package com.example.eternaltalk.service.chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 같은 페르소나에 반복되는 짧은 메시지("안녕", "보고 싶어")의 답장 캐시 (opt-in).
+ * 키 = hash(렌더링된 시스템 프롬프트, 정규화한 사용자 입력, 모델).
+ * 키당 답장을 최대 variants 개까지 모은 뒤부터 순환 제공해 매번 같은 답이 나오지 않게 한다.
+ * 프로필별 끄기: MemoryProfile.replyCacheEnabled = false
+ */
+@Component
+public class ReplyCache {
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCT = Pattern.compile("[.!?~…ㅎㅋㅠㅜ]+$");
+
+    private final boolean enabled;
+    private final int maxInputChars;
+    private final int variants;
+    private final Cache<Key, Variants> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypass;
+
+    public ReplyCache(MeterRegistry registry,
+                      @Value("${chat.reply-cache.enabled:false}") boolean enabled,
+                      @Value("${chat.reply-cache.max-input-chars:20}") int maxInputChars,
+                      @Value("${chat.reply-cache.variants:3}") int variants,
+                      @Value("${chat.reply-cache.ttl:6h}") Duration ttl,
+                      @Value("${chat.reply-cache.max-entries:50000}") long maxEntries) {
+        this.enabled = enabled;
+        this.maxInputChars = maxInputChars;
+        this.variants = Math.max(1, variants);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxEntries)
+                .build();
+        this.hits = Counter.builder("chat.reply_cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("chat.reply_cache.requests").tag("result", "miss").register(registry);
+        this.bypass = Counter.builder("chat.reply_cache.requests").tag("result", "bypass").register(registry);
+        Gauge.builder("chat.reply_cache.size", cache, Cache::estimatedSize).register(registry);
+    }
+
+    /** 캐시 대상이면 키, 아니면(비활성/긴 입력/프로필 끔) null */
+    public Key keyFor(PromptCache.Compiled prompt, String model, String userText) {
+        if (!enabled || !prompt.replyCacheEnabled() || userText == null) return null;
+        String normalized = normalize(userText);
+        if (normalized.isEmpty() || normalized.codePointCount(0, normalized.length()) > maxInputChars) {
+            bypass.increment();
+            return null;
+        }
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(prompt.escapedUtf8());
+            md.update((byte) 0);
+            md.update(normalized.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(model.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer digest = ByteBuffer.wrap(md.digest());
+            return new Key(digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** 모인 답장이 variants 개 이상이면 순환해서 하나 반환, 아니면 null(벤더 호출 필요) */
+    public String get(Key key) {
+        Variants v = cache.getIfPresent(key);
+        String reply = v != null ? v.next(variants) : null;
+        (reply != null ? hits : misses).increment();
+        return reply;
+    }
+
+    public void put(Key key, String reply) {
+        if (reply == null || reply.isBlank()) return;
+        cache.asMap().computeIfAbsent(key, k -> new Variants()).add(reply, variants);
+    }
+
+    // ---- Helpers ----
+
+    /** NFC, 소문자, 공백 정리, 끝의 문장부호/ㅎㅋㅠ 제거 (NFKC 는 호환 자모를 바꾸므로 사용 안 함) */
+    static String normalize(String s) {
+        String n = Normalizer.normalize(s, Normalizer.Form.NFC).toLowerCase(Locale.ROOT).strip();
+        n = SPACES.matcher(n).replaceAll(" ");
+        return TRAILING_PUNCT.matcher(n).replaceAll("").strip();
+    }
+
+    public record Key(long hi, long lo) {}
+
+    /** 키당 답장 모음. 벤더가 같은 답을 주면 중복은 버리되 수집 횟수는 센다 */
+    private static final class Variants {
+        private final List<String> replies = new ArrayList<>(2);
+        private final AtomicInteger cursor = new AtomicInteger();
+        private int collected;
+
+        synchronized String next(int required) {
+            if (collected < required) return null;
+            return replies.get(Math.floorMod(cursor.getAndIncrement(), replies.size()));
+        }
+
+        synchronized void add(String reply, int max) {
+            if (collected >= max) return;
+            collected++;
+            if (!replies.contains(reply)) replies.add(reply);
+        }
+    }
+}
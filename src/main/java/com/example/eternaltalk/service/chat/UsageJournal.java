@@ -0,0 +1,247 @@
+package com.example.eternaltalk.service.chat;
+
+import com.example.eternaltalk.domain.chat.UsageJournalCheckpoint;
+import com.example.eternaltalk.repository.UsageJournalCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * chat_usage_daily 쓰기 지연(write-behind) 저널.
+ * - append: 로컬 추가 전용 로그에 한 줄 기록 후, 사용자·날짜별 원자 누산기에 더한다(DB 접근 없음)
+ * - flush(주기): 세그먼트를 교체하고 누산기를 떼어내 JDBC 배치 upsert. 같은 트랜잭션에서 체크포인트 갱신
+ * - 기동 시: 체크포인트 이후 세그먼트를 재생해 크래시로 유실된 증분을 반영
+ */
+@Component
+public class UsageJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageJournal.class);
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO chat_usage_daily (user_id, usage_date, used_chars) VALUES (?, ?, ?) AS new
+            ON DUPLICATE KEY UPDATE used_chars = chat_usage_daily.used_chars + new.used_chars
+            """;
+    private static final String CHECKPOINT_SQL = """
+            INSERT INTO usage_journal_checkpoint (node_id, last_segment) VALUES (?, ?) AS new
+            ON DUPLICATE KEY UPDATE last_segment = GREATEST(usage_journal_checkpoint.last_segment, new.last_segment)
+            """;
+    private static final String SEGMENT_PREFIX = "usage-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final UsageJournalCheckpointRepository checkpointRepository;
+    private final Path dir;
+    private final boolean fsync;
+
+    // append(읽기 락) 와 세그먼트 교체+누산기 분리(쓰기 락)를 원자적으로 구분
+    private final ReentrantReadWriteLock rotation = new ReentrantReadWriteLock();
+    // flush 직렬화. DB I/O 를 감싸므로 synchronized 대신 ReentrantLock (가상 스레드 고정 방지)
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // 누산기 + DB 반영 중인 스냅샷을 한 번에 교체 → pending() 이 같은 증분을 두 번/0 번 세는 틈이 없음
+    private volatile Buffers buffers = new Buffers(new ConcurrentHashMap<>(), Map.of());
+    private String nodeId;
+    private long segment;
+    private FileChannel channel;
+
+    public UsageJournal(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate tx,
+                        UsageJournalCheckpointRepository checkpointRepository,
+                        @Value("${chat.usage-journal.dir:./data/usage-journal}") String dir,
+                        @Value("${chat.usage-journal.fsync:false}") boolean fsync) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = tx;
+        this.checkpointRepository = checkpointRepository;
+        this.dir = Paths.get(dir);
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(dir);
+        nodeId = loadNodeId();
+        long checkpoint = checkpointRepository.findById(nodeId)
+                .map(UsageJournalCheckpoint::getLastSegment).orElse(0L);
+
+        List<Long> segments = listSegments();
+        long last = checkpoint;
+        Map<Key, AtomicInteger> replay = new HashMap<>();
+        for (long seg : segments) {
+            last = Math.max(last, seg);
+            if (seg > checkpoint) readSegment(seg, replay);
+        }
+        if (!replay.isEmpty()) {
+            log.info("사용량 저널 재생: 세그먼트 {}개, {}건", segments.size(), replay.size());
+            persist(replay, last);
+        }
+        for (long seg : segments) Files.deleteIfExists(segmentPath(seg));
+
+        segment = last + 1;
+        channel = open(segment);
+    }
+
+    /** 사용량 증분 기록. 로그 한 줄 + 누산기 갱신만 하고 DB 는 건드리지 않는다 */
+    public void append(Long userId, LocalDate date, int amount) {
+        byte[] line = (userId + "\t" + date + "\t" + amount + "\n").getBytes(StandardCharsets.US_ASCII);
+        rotation.readLock().lock();
+        try {
+            channel.write(ByteBuffer.wrap(line)); // APPEND 모드: 한 번의 write 가 파일 끝에 원자적으로 붙는다
+            if (fsync) channel.force(false);
+            buffers.accumulating().computeIfAbsent(new Key(userId, date), k -> new AtomicInteger()).addAndGet(amount);
+        } catch (IOException e) {
+            throw new UncheckedIOException("사용량 저널 기록 실패", e);
+        } finally {
+            rotation.readLock().unlock();
+        }
+    }
+
+    /** 아직 DB 에 반영되지 않은 증분 */
+    public int pending(Long userId, LocalDate date) {
+        Key key = new Key(userId, date);
+        Buffers b = buffers;
+        AtomicInteger a = b.accumulating().get(key);
+        AtomicInteger f = b.flushing().get(key);
+        return (a != null ? a.get() : 0) + (f != null ? f.get() : 0);
+    }
+
+    /** 누산기를 떼어내 배치 upsert. 실패하면 누산기로 되돌리고 세그먼트는 남겨 둔다 */
+    @Scheduled(fixedDelayString = "${chat.usage-journal.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<Key, AtomicInteger> snapshot;
+        long sealed;
+        rotation.writeLock().lock();
+        try {
+            if (buffers.accumulating().isEmpty()) return;
+            snapshot = buffers.accumulating();
+            sealed = segment;
+            buffers = new Buffers(new ConcurrentHashMap<>(), snapshot);
+            channel.close();
+            segment++;
+            channel = open(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("사용량 저널 세그먼트 교체 실패", e);
+        } finally {
+            rotation.writeLock().unlock();
+        }
+
+        try {
+            persist(snapshot, sealed);
+        } catch (Exception e) {
+            log.warn("사용량 저널 반영 실패, 다음 주기에 재시도: {}", e.getMessage());
+            // 스냅샷을 합친 새 누산기로 교체 (쓰기 락: 그사이 append 없음, 조회는 합치기 전/후 중 하나만 봄)
+            rotation.writeLock().lock();
+            try {
+                Map<Key, AtomicInteger> merged = new ConcurrentHashMap<>(buffers.accumulating());
+                snapshot.forEach((k, v) -> merged.computeIfAbsent(k, x -> new AtomicInteger()).addAndGet(v.get()));
+                buffers = new Buffers(merged, Map.of());
+            } finally {
+                rotation.writeLock().unlock();
+            }
+            return;
+        }
+        // flush 만 buffers 를 교체하므로(flushLock) 락 없이 스냅샷만 뗀다
+        buffers = new Buffers(buffers.accumulating(), Map.of());
+        try {
+            for (long seg : listSegments()) {
+                if (seg <= sealed) Files.deleteIfExists(segmentPath(seg));
+            }
+        } catch (IOException e) {
+            log.warn("반영된 사용량 저널 세그먼트 삭제 실패 (다음 기동 시 체크포인트 이전이라 재생 안 됨): {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    // ---- Helpers ----
+
+    /** 증분 upsert 와 체크포인트를 한 트랜잭션으로 반영 → 재생 시 중복 없음 */
+    private void persist(Map<Key, AtomicInteger> deltas, long lastSegment) {
+        List<Map.Entry<Key, AtomicInteger>> rows = new ArrayList<>(deltas.entrySet());
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, 500, (ps, e) -> {
+                ps.setLong(1, e.getKey().userId());
+                ps.setDate(2, Date.valueOf(e.getKey().date()));
+                ps.setInt(3, e.getValue().get());
+            });
+            jdbcTemplate.update(CHECKPOINT_SQL, nodeId, lastSegment);
+        });
+    }
+
+    private void readSegment(long seg, Map<Key, AtomicInteger> into) throws IOException {
+        for (String line : Files.readAllLines(segmentPath(seg), StandardCharsets.US_ASCII)) {
+            String[] f = line.split("\t");
+            if (f.length != 3) continue; // 기록 도중 중단된 마지막 줄
+            try {
+                Key key = new Key(Long.parseLong(f[0]), LocalDate.parse(f[1]));
+                into.computeIfAbsent(key, k -> new AtomicInteger()).addAndGet(Integer.parseInt(f[2]));
+            } catch (RuntimeException e) {
+                log.warn("사용량 저널 손상된 줄 무시: {}", line);
+            }
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private String loadNodeId() throws IOException {
+        Path file = dir.resolve("node.id");
+        if (Files.exists(file)) return Files.readString(file).trim();
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id);
+        return id;
+    }
+
+    private FileChannel open(long seg) throws IOException {
+        return FileChannel.open(segmentPath(seg),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long seg) {
+        return dir.resolve(SEGMENT_PREFIX + String.format("%012d", seg) + SEGMENT_SUFFIX);
+    }
+
+    private record Key(Long userId, LocalDate date) {}
+
+    private record Buffers(Map<Key, AtomicInteger> accumulating, Map<Key, AtomicInteger> flushing) {}
+}
@@ -0,0 +1,26 @@
+package com.example.eternaltalk.service.entitlement;
+
+import com.example.eternaltalk.domain.Plan;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** application.yml 의 entitlements.plans.{FREE|SILVER|GOLD}.* */
+@ConfigurationProperties("entitlements")
+public record EntitlementProperties(Map<Plan, Limits> plans, Duration cacheTtl, Long cacheMaxSize) {
+
+    public record Limits(Integer dailyChatChars, Duration videoCooldown, Integer voiceMaxChars, Integer videoMaxChars) {}
+
+    /** 설정값 우선, 빠진 항목은 기본값 */
+    Entitlements resolve(Plan plan) {
+        Entitlements d = Entitlements.defaults(plan);
+        Limits l = plans != null ? plans.get(plan) : null;
+        if (l == null) return d;
+        return new Entitlements(plan,
+                l.dailyChatChars() != null ? l.dailyChatChars() : d.dailyChatChars(),
+                l.videoCooldown() != null ? l.videoCooldown() : d.videoCooldown(),
+                l.voiceMaxChars() != null ? l.voiceMaxChars() : d.voiceMaxChars(),
+                l.videoMaxChars() != null ? l.videoMaxChars() : d.videoMaxChars());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.eternaltalk.service.entitlement;
+
+import com.example.eternaltalk.domain.Plan;
+import com.example.eternaltalk.domain.User;
+import com.example.eternaltalk.repository.UserRepository;
+import com.example.eternaltalk.common.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * 사용자별 이용 한도(Entitlements) 조회.
+ * userId → Entitlements 를 크기/TTL 제한 캐시에 보관하고, 요금제 변경이 커밋되면 바로 무효화한다.
+ * ChatService / VoiceService / VideoService 가 공유.
+ */
+@Service
+public class EntitlementService {
+
+    private final UserRepository userRepository;
+    private final EntitlementProperties properties;
+    private final AsyncCache<Long, Entitlements> cache;
+
+    public EntitlementService(UserRepository userRepository, EntitlementProperties properties) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.cacheMaxSize() != null ? properties.cacheMaxSize() : 10_000)
+                .expireAfterWrite(properties.cacheTtl() != null ? properties.cacheTtl() : Duration.ofMinutes(10))
+                .buildAsync();
+    }
+
+    /** 이미 조회한 User 로부터 (추가 쿼리 없이) 한도 조회 */
+    public Entitlements of(User user) {
+        return CacheLoads.getOrLoad(cache, user.getId(), id -> properties.resolve(planOf(user)));
+    }
+
+    /** userId 만 있을 때. 캐시 미스면 users 1회 조회 (맵 락 밖에서) */
+    public Entitlements of(Long userId) {
+        return CacheLoads.getOrLoad(cache, userId, id -> properties.resolve(userRepository.findById(id)
+                .map(EntitlementService::planOf)
+                .orElse(Plan.FREE)));
+    }
+
+    /**
+     * 요금제 변경 + 커밋 후 캐시 무효화.
+     * 커밋 전에 지우면 그 사이 of(userId) 가 이전 요금제를 읽어 TTL 동안 캐시에 남기므로 커밋 뒤에 지운다
+     * (그때 진행 중인 로딩 future 도 함께 빠진다). 반환값은 캐시를 거치지 않고 바뀐 user 로 계산
+     */
+    @Transactional
+    public Entitlements changePlan(Long userId, Plan plan) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+        user.setPlan(plan);
+        userRepository.save(user);
+        invalidateAfterCommit(userId);
+        return properties.resolve(planOf(user));
+    }
+
+    private void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.synchronous().invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.synchronous().invalidate(userId);
+            }
+        });
+    }
+
+    private static Plan planOf(User user) {
+        return user.getPlan() != null ? user.getPlan() : Plan.FREE;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.eternaltalk.service.entitlement;
+
+import com.example.eternaltalk.domain.Plan;
+
+import java.time.Duration;
+
+/** 요금제별 이용 한도 스냅샷 (채팅/음성/영상 공용) */
+public record Entitlements(
+        Plan plan,
+        int dailyChatChars,     // 하루 채팅 입력 글자수(공백 제외)
+        Duration videoCooldown, // 영상 생성 간 최소 간격
+        int voiceMaxChars,      // 음성 생성 텍스트 최대 글자수(한글, 공백/이모지 제외)
+        int videoMaxChars       // 영상 생성 텍스트 최대 글자수(한글, 공백/이모지 제외)
+) {
+    /** 설정이 없을 때의 기본값: FREE=100, SILVER=500, GOLD=700 */
+    static Entitlements defaults(Plan plan) {
+        int chat = switch (plan) {
+            case FREE -> 100;
+            case SILVER -> 500;
+            case GOLD -> 700;
+        };
+        return new Entitlements(plan, chat, Duration.ZERO, 15, 15);
+    }
+}
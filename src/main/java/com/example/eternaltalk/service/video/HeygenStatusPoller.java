@@ -0,0 +1,163 @@
+package com.example.eternaltalk.service.video;
+
+import com.example.eternaltalk.client.HeygenClient;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.video.VideoRequest;
+import com.example.eternaltalk.repository.VideoRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PROCESSING 영상의 HeyGen 상태를 서버가 대신 조회해 DB 에 반영한다. 클라이언트의 상태 조회는 DB 만 읽는다.
+ * heygen.webhook.secret 이 설정되어 완료 콜백을 받는 경우에는 reconcile-* 간격의 저빈도 보정 조회만 한다.
+ * - 주기마다 차례가 된 행을 batch-size 만큼 SKIP LOCKED 로 잠가 next_poll_at 을 lease 만큼 미뤄 두고(선점) 커밋
+ *   → 여러 노드가 같은 행을 동시에 조회하지 않고, 선점한 노드가 죽으면 lease 후 다른 노드가 이어받는다
+ * - HeyGen 호출은 트랜잭션 밖에서 concurrency 개씩, 결과 반영만 짧은 트랜잭션
+ * - 아직 처리 중이면 작업별 지수 백오프(initial-delay × 2^시도, 최대 max-delay)로 다음 조회 시각을 잡는다
+ * 배치는 비동기로 돌고 이전 배치가 끝나지 않았으면 이번 주기는 건너뛴다 (스케줄러 스레드를 붙잡지 않음).
+ */
+@Component
+public class HeygenStatusPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(HeygenStatusPoller.class);
+
+    private final VideoRequestRepository repository;
+    private final HeygenClient heygen;
+    private final JpaExecutor jpa;
+    private final VideoStatusUpdater updater;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration initialDelay;
+    private final Duration maxDelay;
+    private final Duration lease;
+    private final Duration giveUpAfter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public HeygenStatusPoller(VideoRequestRepository repository, HeygenClient heygen, JpaExecutor jpa,
+                              VideoStatusUpdater updater, MeterRegistry registry,
+                              @Value("${heygen.poller.enabled:true}") boolean enabled,
+                              @Value("${heygen.poller.batch-size:50}") int batchSize,
+                              @Value("${heygen.poller.concurrency:8}") int concurrency,
+                              @Value("${heygen.poller.initial-delay:5s}") Duration initialDelay,
+                              @Value("${heygen.poller.max-delay:60s}") Duration maxDelay,
+                              @Value("${heygen.poller.lease:2m}") Duration lease,
+                              @Value("${heygen.poller.give-up-after:2h}") Duration giveUpAfter,
+                              @Value("${heygen.webhook.secret:}") String webhookSecret,
+                              @Value("${heygen.poller.reconcile-initial-delay:5m}") Duration reconcileInitialDelay,
+                              @Value("${heygen.poller.reconcile-max-delay:15m}") Duration reconcileMaxDelay) {
+        this.repository = repository;
+        this.heygen = heygen;
+        this.jpa = jpa;
+        this.updater = updater;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        // 웹훅을 받으면 폴링은 놓친 콜백을 줍는 저빈도 보정만
+        boolean webhook = !webhookSecret.isBlank();
+        this.initialDelay = webhook ? reconcileInitialDelay : initialDelay;
+        this.maxDelay = webhook ? reconcileMaxDelay : maxDelay;
+        this.lease = lease;
+        this.giveUpAfter = giveUpAfter;
+    }
+
+    /** 새 작업의 첫 조회 시각 (생성 직후에는 끝났을 리 없으므로 initial-delay 뒤) */
+    public LocalDateTime firstPollAt() {
+        return LocalDateTime.now().plus(initialDelay);
+    }
+
+    @Scheduled(fixedDelayString = "${heygen.poller.interval-ms:2000}")
+    void tick() {
+        if (!enabled || !running.compareAndSet(false, true)) return;
+        jpa.tx(this::claim)
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(this::poll, concurrency)
+                .doFinally(s -> running.set(false))
+                .subscribe(null, e -> log.warn("HeyGen 상태 폴링 배치 실패: {}", e.getMessage()));
+    }
+
+    // ---- Helpers ----
+
+    /** 차례가 된 행 선점: 시도 횟수 +1, lease 동안 다른 노드/다음 주기에서 제외 */
+    private List<Claim> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<VideoRequest> due = repository.lockDueForPoll(now, batchSize);
+        for (VideoRequest vr : due) {
+            vr.setPollAttempts(attempts(vr) + 1);
+            vr.setNextPollAt(now.plus(lease));
+        }
+        repository.saveAll(due);
+        return due.stream().map(vr -> new Claim(vr.getId(), vr.heygenVideoId(), vr.getPollAttempts())).toList();
+    }
+
+    private Mono<Void> poll(Claim c) {
+        return heygen.getVideoStatus(c.videoId())
+                .flatMap(s -> jpa.tx(() -> apply(c, s)))
+                .onErrorResume(e -> {
+                    log.debug("HeyGen 상태 조회 실패 videoId={}: {}", c.videoId(), e.getMessage());
+                    count("call_error");
+                    return jpa.tx(() -> apply(c, null));
+                })
+                .doOnNext(updater::publish) // 커밋 후 완료 알림 (기다리는 SSE 요청을 깨움)
+                .then();
+    }
+
+    /** 조회 결과 반영. s == null 이면 조회 실패(백오프 후 재시도). 끝난 상태가 되면 알림 이벤트 반환 */
+    private VideoStatusEvent apply(Claim c, HeygenClient.Status s) {
+        VideoRequest vr = repository.findById(c.id()).orElse(null);
+        if (vr == null || !"PROCESSING".equals(vr.getStatus())) return null; // 그사이 다른 경로에서 종료됨
+
+        String st = s != null && s.status() != null ? s.status().toUpperCase() : "";
+        switch (st) {
+            case "COMPLETED" -> { return counted(updater.complete(vr, s.videoUrl()), "done"); }
+            case "FAILED" -> { return counted(updater.fail(vr, VideoStatusUpdater.HEYGEN_FAILED), "failed"); }
+            default -> {
+                if (s != null) count("pending");
+                if (vr.getCreatedAt() != null && vr.getCreatedAt().plus(giveUpAfter).isBefore(LocalDateTime.now())) {
+                    log.warn("HeyGen 영상이 {} 안에 끝나지 않아 ERROR 처리 videoId={}", giveUpAfter, c.videoId());
+                    return updater.fail(vr, "영상 생성 시간 초과");
+                }
+                vr.setNextPollAt(LocalDateTime.now().plus(backoff(c.attempts())));
+                repository.save(vr);
+                return null;
+            }
+        }
+    }
+
+    /** initial-delay × 2^(시도-1), 최대 max-delay. ±10% 흔들어 같은 시각에 몰리지 않게 */
+    private Duration backoff(int attempts) {
+        long base = initialDelay.toMillis() << Math.min(Math.max(attempts - 1, 0), 20);
+        long ms = Math.min(base, maxDelay.toMillis());
+        return Duration.ofMillis((long) (ms * ThreadLocalRandom.current().nextDouble(0.9, 1.1)));
+    }
+
+    private void count(String result) {
+        registry.counter("video.heygen_poller.polls", "result", result).increment();
+    }
+
+    /** 행을 실제로 바꾼 경우만 센다 (그사이 웹훅이 먼저 반영했으면 duplicate) */
+    private VideoStatusEvent counted(VideoStatusEvent event, String result) {
+        count(event != null ? result : "duplicate");
+        return event;
+    }
+
+    private static int attempts(VideoRequest vr) {
+        return vr.getPollAttempts() != null ? vr.getPollAttempts() : 0;
+    }
+
+    private record Claim(Long id, String videoId, int attempts) {}
+}
@@ -0,0 +1,99 @@
+package com.example.eternaltalk.service.video;
+
+import com.example.eternaltalk.client.codec.HeygenPayloads;
+import com.example.eternaltalk.client.codec.JsonCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HeyGen 완료 콜백(POST /api/webhooks/heygen) 처리.
+ * - 서명: signature 헤더 = hex(HMAC-SHA256(원문 본문, heygen.webhook.secret)). 비밀값이 없으면 엔드포인트 비활성(404)
+ * - avatar_video.success → DONE(+url), avatar_video.fail → ERROR. 나머지 이벤트는 무시, 해석할 수 없는 본문은 400
+ * - 전이는 VideoStatusUpdater 로 (멱등). 모르는 video_id 나 이미 끝난 작업도 200 으로 응답해 재전송을 멈춘다
+ */
+@Component
+public class HeygenWebhookHandler {
+
+    public static final String SIGNATURE_HEADER = "signature";
+
+    private static final Logger log = LoggerFactory.getLogger(HeygenWebhookHandler.class);
+
+    private final JsonCodec json;
+    private final VideoStatusUpdater updater;
+    private final MeterRegistry registry;
+    private final byte[] secret;
+
+    public HeygenWebhookHandler(JsonCodec json, VideoStatusUpdater updater, MeterRegistry registry,
+                                @Value("${heygen.webhook.secret:}") String secret) {
+        this.json = json;
+        this.updater = updater;
+        this.registry = registry;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean enabled() {
+        return secret.length > 0;
+    }
+
+    public Mono<Void> handle(byte[] body, String signature) {
+        if (!enabled()) return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (signature == null || !MessageDigest.isEqual(sign(body).getBytes(StandardCharsets.US_ASCII),
+                signature.trim().toLowerCase().getBytes(StandardCharsets.US_ASCII))) {
+            count("bad_signature");
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "서명이 올바르지 않습니다."));
+        }
+
+        HeygenPayloads.WebhookEvent event;
+        try {
+            event = json.parse(body, HeygenPayloads.WEBHOOK);
+        } catch (UncheckedIOException e) {
+            count("bad_payload"); // 서명은 맞지만 본문이 JSON 이 아님 → 재전송해도 같으므로 400
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "본문을 해석할 수 없습니다."));
+        }
+        Boolean success = switch (String.valueOf(event.eventType())) {
+            case "avatar_video.success" -> true;
+            case "avatar_video.fail" -> false;
+            default -> null;
+        };
+        if (success == null || event.videoId() == null) {
+            count("ignored");
+            return Mono.empty();
+        }
+        if (!success) log.warn("HeyGen 영상 실패 콜백 videoId={}: {}", event.videoId(), event.message());
+
+        return updater.apply(event.videoId(), success, event.url())
+                .doOnNext(applied -> count(applied ? "applied" : "duplicate"))
+                .then();
+    }
+
+    /** 같은 비밀값으로 본문 서명 (로컬 재생기에서도 사용) */
+    public String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 사용 불가", e);
+        }
+    }
+
+    // ---- Helpers ----
+
+    private void count(String result) {
+        registry.counter("video.heygen_webhook.events", "result", result).increment();
+    }
+}
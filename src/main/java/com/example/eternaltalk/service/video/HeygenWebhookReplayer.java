@@ -0,0 +1,58 @@
+package com.example.eternaltalk.service.video;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 로컬 프로필 전용 HeyGen 대역: 기록해 둔 콜백 본문(heygen-webhooks/avatar_video.{event}.json)에
+ * jobId 를 넣고 서명해서 자기 자신의 /api/webhooks/heygen 으로 보낸다. 서명 검증/보안 설정/멱등 전이/SSE 알림까지
+ * 실제 콜백과 같은 경로를 탄다.
+ */
+@Component
+@Profile("local")
+public class HeygenWebhookReplayer {
+
+    private final HeygenWebhookHandler handler;
+    private final WebClient self;
+
+    public HeygenWebhookReplayer(HeygenWebhookHandler handler,
+                                 @Value("${server.port:8080}") int port) {
+        this.handler = handler;
+        this.self = WebClient.create("http://localhost:" + port);
+    }
+
+    /** event: success | fail. 응답 상태 코드 반환 */
+    public Mono<Integer> replay(String jobId, String event) {
+        byte[] body = recorded(event).replace("{{video_id}}", jobId).getBytes(StandardCharsets.UTF_8);
+        return self.post()
+                .uri("/api/webhooks/heygen")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HeygenWebhookHandler.SIGNATURE_HEADER, handler.sign(body))
+                .bodyValue(body)
+                .exchangeToMono(r -> r.releaseBody().thenReturn(r.statusCode().value()));
+    }
+
+    // ---- Helpers ----
+
+    private static String recorded(String event) {
+        if (!"success".equals(event) && !"fail".equals(event)) {
+            throw new IllegalArgumentException("event 는 success 또는 fail 이어야 합니다.");
+        }
+        Resource r = new ClassPathResource("heygen-webhooks/avatar_video." + event + ".json");
+        try {
+            return r.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("기록된 콜백 본문을 읽지 못했습니다: " + r, e);
+        }
+    }
+}
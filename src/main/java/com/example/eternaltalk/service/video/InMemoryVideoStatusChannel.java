@@ -0,0 +1,27 @@
+package com.example.eternaltalk.service.video;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/** 같은 JVM 안에서만 전달하는 채널 (단일 노드/테스트용) */
+@Component
+@ConditionalOnProperty(name = "video.status-channel.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryVideoStatusChannel implements VideoStatusChannel {
+
+    // 구독자가 없을 때의 알림은 버린다 (기다리는 요청이 없다는 뜻)
+    private final Sinks.Many<VideoStatusEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public void publish(VideoStatusEvent event) {
+        sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    @Override
+    public Flux<VideoStatusEvent> events() {
+        return sink.asFlux();
+    }
+}
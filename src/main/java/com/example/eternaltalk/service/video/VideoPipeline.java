@@ -0,0 +1,382 @@
+package com.example.eternaltalk.service.video;
+
+import com.example.eternaltalk.client.HeygenClient;
+import com.example.eternaltalk.client.VendorException;
+import com.example.eternaltalk.client.resilience.CircuitOpenException;
+import com.example.eternaltalk.client.resilience.DeadlineExceededException;
+import com.example.eternaltalk.client.resilience.VendorOverloadedException;
+import com.example.eternaltalk.domain.video.VideoRequest;
+import com.example.eternaltalk.repository.VideoLastGeneratedRepository;
+import com.example.eternaltalk.repository.VideoRequestRepository;
+import com.example.eternaltalk.service.voice.TtsAudioCache;
+import com.example.eternaltalk.storage.S3Uploader;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 텍스트 → 영상 생성 파이프라인. 단계와 중간 결과를 video_request 행에 저장해 두고 단계별로 이어 간다.
+ *   TTS(합성 → S3 업로드, TtsAudioCache) → STORE_AUDIO(HeyGen 에 넘길 오디오 URL 발급)
+ *   → SUBMIT_VIDEO(HeyGen 생성 요청) → AWAIT(HeygenStatusPoller/웹훅) → DONE
+ * - 단계마다 별도 고정 크기 워커 풀. 벤더 호출 중에는 트랜잭션/커넥션을 잡지 않고, 상태 쓰기만 짧은 트랜잭션
+ * - 실행할 행은 SKIP LOCKED 로 선점(stage_due_at 을 lease 만큼 미룸)하고 stage_attempts 를 펜싱 토큰으로 쓴다.
+ *   워커가 벤더를 부르기 직전에 토큰을 다시 확인하며 lease 를 연장하고, 결과는 행을 FOR UPDATE 로 다시 읽어
+ *   토큰이 그대로일 때만 쓴다 → 노드가 죽으면 lease 후 다른 노드가 이어받고, 이전 실행은 벤더를 부르지 않거나
+ *   늦게 끝난 결과가 버려진다
+ * - SUBMIT_VIDEO 는 놀고 있는 워커 수만큼만 선점한다 (대기열에서 lease 가 지나 같은 행이 두 번 제출되지 않게)
+ * - 실패는 단계별로 max-attempts 까지 지수 백오프 재시도, 그 뒤 ERROR. 벤더가 요청을 거절(4xx)하면 바로 ERROR.
+ *   결과를 남기지 못하고 끝난 실행(노드 중단 등)도 시도로 세어, max-attempts 를 다 쓴 행은 선점할 때 ERROR
+ * - SUBMIT_VIDEO 는 멱등이 아니므로 HeyGen 이 요청을 받지 않은 게 확실할 때(연결 실패, 보내기 전 거절, 429)만 재시도.
+ *   타임아웃/5xx 처럼 받았을 수도 있으면 다시 보내지 않고 ERROR (영상이 두 번 만들어지지 않게)
+ * - ERROR 로 끝나면 이 요청이 기록한 생성 간격(video_last_generated)을 되돌린다
+ * - 단계가 끝나면 다음 단계를 바로 선점해 실행하고, 주기 스윕이 재시도/재시작/대기열 초과분을 줍는다
+ * 남는 한계: HeyGen 이 받은 직후 결과를 쓰기 전에 노드가 죽으면 lease 뒤 재실행이 영상을 한 번 더 만든다.
+ */
+@Component
+public class VideoPipeline {
+
+    public static final String TTS = "TTS", STORE_AUDIO = "STORE_AUDIO", SUBMIT_VIDEO = "SUBMIT_VIDEO",
+            AWAIT = "AWAIT", DONE = "DONE";
+
+    enum Stage { TTS, STORE_AUDIO, SUBMIT_VIDEO }
+
+    private static final Logger log = LoggerFactory.getLogger(VideoPipeline.class);
+    private static final DateTimeFormatter TITLE_TS = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final VideoRequestRepository repository;
+    private final VideoLastGeneratedRepository lastGenerated;
+    private final TtsAudioCache ttsAudio;
+    private final S3Uploader s3;
+    private final HeygenClient heygen;
+    private final HeygenStatusPoller statusPoller;
+    private final VideoStatusUpdater updater;
+    private final TransactionTemplate tx;
+    private final MeterRegistry registry;
+    private final Map<Stage, ThreadPoolExecutor> workers = new EnumMap<>(Stage.class);
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration stageTimeout;
+    private final Duration lease;
+    private final Duration retryInitialDelay;
+    private final Duration retryMaxDelay;
+
+    public VideoPipeline(VideoRequestRepository repository, VideoLastGeneratedRepository lastGenerated,
+                         TtsAudioCache ttsAudio, S3Uploader s3,
+                         HeygenClient heygen, HeygenStatusPoller statusPoller, VideoStatusUpdater updater,
+                         TransactionTemplate tx, MeterRegistry registry,
+                         @Value("${video.pipeline.tts.workers:4}") int ttsWorkers,
+                         @Value("${video.pipeline.store-audio.workers:2}") int storeAudioWorkers,
+                         @Value("${video.pipeline.submit-video.workers:2}") int submitVideoWorkers,
+                         @Value("${video.pipeline.queue-capacity:100}") int queueCapacity,
+                         @Value("${video.pipeline.batch-size:20}") int batchSize,
+                         @Value("${video.pipeline.max-attempts:3}") int maxAttempts,
+                         @Value("${video.pipeline.stage-timeout:90s}") Duration stageTimeout,
+                         @Value("${video.pipeline.lease:3m}") Duration lease,
+                         @Value("${video.pipeline.retry-initial-delay:2s}") Duration retryInitialDelay,
+                         @Value("${video.pipeline.retry-max-delay:1m}") Duration retryMaxDelay) {
+        this.repository = repository;
+        this.lastGenerated = lastGenerated;
+        this.ttsAudio = ttsAudio;
+        this.s3 = s3;
+        this.heygen = heygen;
+        this.statusPoller = statusPoller;
+        this.updater = updater;
+        this.tx = tx;
+        this.registry = registry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.stageTimeout = stageTimeout;
+        this.lease = lease;
+        this.retryInitialDelay = retryInitialDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        workers.put(Stage.TTS, pool("video-tts-", ttsWorkers, queueCapacity));
+        workers.put(Stage.STORE_AUDIO, pool("video-store-audio-", storeAudioWorkers, queueCapacity));
+        workers.put(Stage.SUBMIT_VIDEO, pool("video-submit-", submitVideoWorkers, queueCapacity));
+    }
+
+    /**
+     * 새 작업 행 (호출자 트랜잭션 안에서 저장). audioUrl 이 있으면 SUBMIT_VIDEO 부터, 없으면 TTS 부터.
+     * 커밋 후 kick(행) 으로 첫 단계를 바로 시작한다 (호출하지 않아도 스윕이 가져감)
+     */
+    public VideoRequest create(Long userId, String photoUrl, String voiceId, String text, String audioUrl) {
+        return repository.save(VideoRequest.builder()
+                .userId(userId)
+                .jobId(UUID.randomUUID().toString())
+                .status("PENDING")
+                .stage(audioUrl != null ? SUBMIT_VIDEO : TTS)
+                .stageAttempts(0)
+                .stageDueAt(LocalDateTime.now())
+                .photoUrl(photoUrl)
+                .voiceId(voiceId)
+                .text(text)
+                .audioUrl(audioUrl)
+                .build());
+    }
+
+    /** 행의 현재 단계를 바로 선점해 실행 (블로킹 DB 구간이므로 JPA 풀/워커 스레드에서 호출) */
+    public void kick(VideoRequest vr) {
+        pump(Stage.valueOf(vr.getStage()));
+    }
+
+    /** 재시도 시각이 된 행, 재시작/노드 중단으로 lease 가 끝난 행, 대기열이 차서 밀린 행을 줍는다 */
+    @Scheduled(fixedDelayString = "${video.pipeline.sweep-interval-ms:1000}")
+    void sweep() {
+        for (Stage stage : Stage.values()) {
+            try {
+                pump(stage);
+            } catch (RuntimeException e) {
+                log.warn("영상 파이프라인 {} 스윕 실패: {}", stage, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.values().forEach(ThreadPoolExecutor::shutdown); // 진행 중이던 행은 lease 후 다른 노드/재시작이 이어받음
+    }
+
+    // ---- 선점/실행 ----
+
+    private void pump(Stage stage) {
+        ThreadPoolExecutor pool = workers.get(stage);
+        int idle = Math.max(0, pool.getMaximumPoolSize() - pool.getActiveCount() - pool.getQueue().size());
+        int room = stage == Stage.SUBMIT_VIDEO ? idle : pool.getQueue().remainingCapacity() + idle;
+        int limit = Math.min(batchSize, room);
+        if (limit <= 0) return;
+
+        Claimed claimed = tx.execute(s -> claim(stage, limit));
+        claimed.failed().forEach(updater::publish);
+        for (Task t : claimed.tasks()) {
+            try {
+                pool.execute(() -> run(t));
+            } catch (RejectedExecutionException e) {
+                release(t); // 다음 스윕에서 다시
+            }
+        }
+    }
+
+    /** 트랜잭션 안에서 호출. 시도를 다 쓴 행은 ERROR (커밋 후 알릴 이벤트), 나머지는 시도 +1 과 lease */
+    private Claimed claim(Stage stage, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> tasks = new ArrayList<>();
+        List<VideoStatusEvent> failed = new ArrayList<>();
+        for (VideoRequest vr : repository.lockDueStage(stage.name(), now, limit)) {
+            int attempts = vr.getStageAttempts() != null ? vr.getStageAttempts() : 0;
+            if (attempts >= maxAttempts) {
+                // 이전 시도가 결과를 남기지 못함 (노드 중단, 예외가 아닌 오류 등). 더 미루지 않는다
+                log.warn("영상 파이프라인 {} 시도 횟수 초과 jobId={}", stage, vr.getJobId());
+                count(stage, "exhausted");
+                VideoStatusEvent event = fail(vr, stage + " 실패 (시도 횟수 초과)");
+                if (event != null) failed.add(event);
+                continue;
+            }
+            vr.setStageAttempts(attempts + 1);
+            vr.setStageDueAt(now.plus(lease));
+            repository.save(vr);
+            tasks.add(new Task(vr, stage, attempts + 1));
+        }
+        return new Claimed(tasks, failed);
+    }
+
+    /** 워커 스레드: 선점 확인 → 단계 실행(트랜잭션 밖) → 결과 반영 + 다음 단계로 (짧은 트랜잭션) */
+    private void run(Task t) {
+        VideoRequest vr = t.row();
+        try {
+            if (!renew(t)) {
+                log.info("영상 파이프라인 {} 실행 건너뜀 (다른 실행이 이어받음) jobId={}", t.stage(), vr.getJobId());
+                count(t.stage(), "stale");
+                return;
+            }
+            switch (t.stage()) {
+                case TTS -> {
+                    String s3Key = ttsAudio.s3Key(vr.getVoiceId(), vr.getText()).block(stageTimeout);
+                    advance(t, STORE_AUDIO, row -> row.setAudioS3Key(s3Key));
+                }
+                case STORE_AUDIO -> {
+                    // 재시도/재시작 뒤에도 만료되지 않은 URL 이 HeyGen 에 가도록 이 단계에서 발급해 저장
+                    String audioUrl = s3.presign(vr.getAudioS3Key());
+                    advance(t, SUBMIT_VIDEO, row -> row.setAudioUrl(audioUrl));
+                }
+                case SUBMIT_VIDEO -> {
+                    String title = "EternalTalk " + TITLE_TS.format(vr.getCreatedAt() != null ? vr.getCreatedAt() : LocalDateTime.now());
+                    String videoId = heygen.createAvatarIVVideo(vr.getPhotoUrl(), vr.getAudioUrl(), 1280, 720, title) // 16:9
+                            .block(stageTimeout);
+                    advance(t, AWAIT, row -> {
+                        row.setVideoId(videoId);
+                        row.setStatus("PROCESSING"); // 이제 HeygenStatusPoller/웹훅 담당
+                        row.setPollAttempts(0);
+                        row.setNextPollAt(statusPoller.firstPollAt());
+                    });
+                }
+            }
+            count(t.stage(), "ok");
+        } catch (RuntimeException e) {
+            retryOrFail(t, e);
+        }
+    }
+
+    /**
+     * 벤더 호출 직전: 아직 이 실행이 행의 주인인지 확인하고 lease 를 지금부터 다시 잡는다.
+     * 대기열에서 기다리는 사이 lease 가 지나 다른 실행이 이어받았으면 false (SUBMIT_VIDEO 를 두 번 보내지 않음)
+     */
+    private boolean renew(Task t) {
+        return Boolean.TRUE.equals(tx.execute(s -> repository.findForUpdateById(t.row().getId())
+                .filter(vr -> owns(vr, t))
+                .map(vr -> {
+                    vr.setStageDueAt(LocalDateTime.now().plus(lease));
+                    repository.save(vr);
+                    return true;
+                })
+                .orElse(false)));
+    }
+
+    /** 아직 이 실행이 행의 주인이면(단계·시도 일치) 결과를 쓰고 다음 단계로. 다음 단계는 바로 선점 */
+    private void advance(Task t, String next, Consumer<VideoRequest> result) {
+        boolean written = Boolean.TRUE.equals(tx.execute(s -> repository.findForUpdateById(t.row().getId())
+                .filter(vr -> owns(vr, t))
+                .map(vr -> {
+                    result.accept(vr);
+                    vr.setStage(next);
+                    vr.setStageAttempts(0);
+                    vr.setStageDueAt(AWAIT.equals(next) ? null : LocalDateTime.now());
+                    repository.save(vr);
+                    return true;
+                })
+                .orElse(false)));
+        if (!written) {
+            log.info("영상 파이프라인 {} 결과 버림 (다른 실행이 이어받음) jobId={}", t.stage(), t.row().getJobId());
+            return;
+        }
+        if (!AWAIT.equals(next)) pump(Stage.valueOf(next));
+    }
+
+    private void retryOrFail(Task t, RuntimeException e) {
+        String jobId = t.row().getJobId();
+        boolean retry = t.attempt() < maxAttempts && retryable(t.stage(), e);
+        log.warn("영상 파이프라인 {} 실패 ({}/{}) jobId={}: {}", t.stage(), t.attempt(), maxAttempts, jobId, e.getMessage());
+        count(t.stage(), retry ? "retry" : "failed");
+        try {
+            VideoStatusEvent failed = tx.execute(s -> repository.findForUpdateById(t.row().getId())
+                    .filter(vr -> owns(vr, t))
+                    .map(vr -> {
+                        if (!retry) return fail(vr, failure(t.stage(), e));
+                        vr.setStageDueAt(LocalDateTime.now().plus(backoff(t.attempt())));
+                        repository.save(vr);
+                        return null;
+                    })
+                    .orElse(null));
+            if (failed != null) updater.publish(failed);
+        } catch (RuntimeException dbError) {
+            // DB 장애 시 lease 가 끝나면 스윕이 다시 가져감
+            log.warn("영상 파이프라인 상태 기록 실패 jobId={}: {}", jobId, dbError.getMessage());
+        }
+    }
+
+    /** 대기열 초과로 실행하지 못한 선점을 되돌림 */
+    private void release(Task t) {
+        tx.executeWithoutResult(s -> repository.findForUpdateById(t.row().getId())
+                .filter(vr -> owns(vr, t))
+                .ifPresent(vr -> {
+                    vr.setStageAttempts(t.attempt() - 1);
+                    vr.setStageDueAt(LocalDateTime.now());
+                    repository.save(vr);
+                }));
+    }
+
+    // ---- Helpers ----
+
+    /** 트랜잭션 안에서 ERROR 로. 영상을 만들지 못했으므로 이 요청이 기록한 생성 간격은 되돌린다 */
+    private VideoStatusEvent fail(VideoRequest vr, String error) {
+        VideoStatusEvent event = updater.fail(vr, error);
+        if (event != null) lastGenerated.releaseIfAt(vr.getUserId(), vr.getCreatedAt());
+        return event;
+    }
+
+    private static boolean owns(VideoRequest vr, Task t) {
+        return "PENDING".equals(vr.getStatus()) && t.stage().name().equals(vr.getStage())
+                && vr.getStageAttempts() != null && vr.getStageAttempts() == t.attempt();
+    }
+
+    /**
+     * 다시 시도해도 되는 실패인지. 벤더의 요청 거절(4xx)은 다시 보내도 같으므로 재시도하지 않는다.
+     * SUBMIT_VIDEO 는 HeyGen 이 요청을 받지 않은 게 확실할 때만: 429, 보내기 전 거절(한도/서킷), 연결 실패
+     */
+    static boolean retryable(Stage stage, Throwable e) {
+        if (stage != Stage.SUBMIT_VIDEO) return !(e instanceof VendorException ve) || ve.isOverload();
+        if (e instanceof VendorException ve) return ve.getStatus() == 429;
+        return e instanceof VendorOverloadedException || e instanceof CircuitOpenException || connectFailure(e);
+    }
+
+    /** 행에 남기고 상태 조회로 내보내는 실패 사유 (벤더 응답 본문 등 상세는 로그에만) */
+    static String failure(Stage stage, Throwable e) {
+        String reason;
+        if (e instanceof VendorException ve) reason = ve.getVendor() + " " + ve.getStatus();
+        else if (e instanceof VendorOverloadedException || e instanceof CircuitOpenException) reason = "요청 과다";
+        else if (timeout(e)) reason = "응답 시간 초과";
+        else if (connectFailure(e)) reason = "연결 실패";
+        else reason = "내부 오류";
+        return stage + " 실패 (" + reason + ")";
+    }
+
+    private static boolean connectFailure(Throwable e) {
+        for (Throwable c = e; c != null; c = c.getCause()) {
+            if (c instanceof ConnectException || c instanceof UnknownHostException) return true;
+        }
+        return false;
+    }
+
+    /** block(stage-timeout) 초과(IllegalStateException) 또는 응답 타임아웃 */
+    private static boolean timeout(Throwable e) {
+        for (Throwable c = e; c != null; c = c.getCause()) {
+            if (c instanceof TimeoutException || c instanceof DeadlineExceededException) return true;
+            if (c instanceof IllegalStateException && String.valueOf(c.getMessage()).startsWith("Timeout on blocking read")) return true;
+        }
+        return false;
+    }
+
+    /** retry-initial-delay × 2^(시도-1), 최대 retry-max-delay */
+    private Duration backoff(int attempt) {
+        long ms = retryInitialDelay.toMillis() << Math.min(Math.max(attempt - 1, 0), 20);
+        return Duration.ofMillis(Math.min(ms, retryMaxDelay.toMillis()));
+    }
+
+    private void count(Stage stage, String result) {
+        registry.counter("video.pipeline.stages", "stage", stage.name(), "result", result).increment();
+    }
+
+    private static ThreadPoolExecutor pool(String prefix, int threads, int queueCapacity) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(prefix),
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /** 선점한 행의 스냅샷 + 펜싱 토큰(attempt) */
+    private record Task(VideoRequest row, Stage stage, int attempt) {}
+
+    private record Claimed(List<Task> tasks, List<VideoStatusEvent> failed) {}
+}
@@ -0,0 +1,18 @@
+package com.example.eternaltalk.service.video;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 영상 완료 알림 전달 통로. 상태를 바꾼 노드가 publish 하고, 모든 노드의 VideoStatusHub 가 events() 를 구독한다.
+ * 단일 노드는 InMemoryVideoStatusChannel(기본). 여러 노드면 Redis pub/sub 등으로 구현한 빈을 등록하고
+ * video.status-channel.type 을 memory 이외의 값으로 둔다.
+ * 전달은 최선 노력: 놓친 알림은 구독자가 DB 를 다시 읽어(재연결) 보완한다.
+ */
+public interface VideoStatusChannel {
+
+    /** 상태 전이 트랜잭션이 커밋된 뒤에 호출 */
+    void publish(VideoStatusEvent event);
+
+    /** 이 노드가 받는 모든 알림 (hot) */
+    Flux<VideoStatusEvent> events();
+}
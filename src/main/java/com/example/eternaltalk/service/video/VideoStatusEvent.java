@@ -0,0 +1,7 @@
+package com.example.eternaltalk.service.video;
+
+/**
+ * VideoRequest 가 끝난 상태(DONE/ERROR)로 바뀌었다는 알림. videoUrl 은 DONE 일 때만.
+ * stage/error 는 상태 조회(StatusResponse)와 같은 값: ERROR 면 실패한 단계와 사유 (다시 읽지 않아도 되도록)
+ */
+public record VideoStatusEvent(String jobId, String status, String videoUrl, String stage, String error) {}
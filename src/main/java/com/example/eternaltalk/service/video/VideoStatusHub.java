@@ -0,0 +1,91 @@
+package com.example.eternaltalk.service.video;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * jobId 별로 완료를 기다리는 요청들을 모아 두고, 채널에서 알림이 오면 해당 요청만 깨운다.
+ * 기다리는 동안 스레드/DB 커넥션을 쓰지 않는다 (Sinks.One 하나).
+ * 사용: register() 로 먼저 등록한 뒤 DB 를 읽어야 그 사이에 온 알림을 놓치지 않는다. 끝나면 dispose().
+ */
+@Component
+public class VideoStatusHub {
+
+    private final VideoStatusChannel channel;
+    private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private Disposable subscription;
+
+    public VideoStatusHub(VideoStatusChannel channel, MeterRegistry registry) {
+        this.channel = channel;
+        Gauge.builder("video.status_hub.waiting", this, VideoStatusHub::waiting).register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        subscription = channel.events().subscribe(this::deliver);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) subscription.dispose();
+    }
+
+    /** 상태 전이를 반영한 쪽(폴러/웹훅)이 커밋 후 호출 */
+    public void publish(VideoStatusEvent event) {
+        channel.publish(event);
+    }
+
+    public Waiter register(String jobId) {
+        Waiter w = new Waiter(jobId);
+        // 추가까지 compute 안에서: deliver 의 remove 와 겹쳐도 떼어진 집합에 들어가 알림을 놓치는 일이 없다
+        waiters.compute(jobId, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(w);
+            return set;
+        });
+        return w;
+    }
+
+    /** 현재 대기 중인 요청 수 (지표용) */
+    public int waiting() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // ---- Helpers ----
+
+    private void deliver(VideoStatusEvent event) {
+        Set<Waiter> set = waiters.remove(event.jobId());
+        if (set == null) return;
+        for (Waiter w : set) w.sink.tryEmitValue(event);
+    }
+
+    private void remove(Waiter w) {
+        waiters.computeIfPresent(w.jobId, (k, set) -> {
+            set.remove(w);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public final class Waiter implements Disposable {
+        private final String jobId;
+        private final Sinks.One<VideoStatusEvent> sink = Sinks.one();
+
+        private Waiter(String jobId) { this.jobId = jobId; }
+
+        /** 완료 알림이 오면 값을 내고 끝난다 */
+        public Mono<VideoStatusEvent> result() { return sink.asMono(); }
+
+        @Override
+        public void dispose() { remove(this); }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.eternaltalk.service.video;
+
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.video.VideoRequest;
+import com.example.eternaltalk.repository.VideoRequestRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * VideoRequest 완료 전이의 단일 경로 (웹훅, 폴러, 파이프라인 공용).
+ * 전이는 조건부 UPDATE(... WHERE id = ? AND status = 'PROCESSING') 한 문장이라 웹훅과 폴러가 동시에 와도
+ * 한쪽만 행을 바꾼다. 바뀐 행이 있을 때만 이벤트를 돌려주고, 커밋 후 VideoStatusHub 로 알린다.
+ * 메서드에 넘기는 행은 id/jobId 만 쓴다 (호출 쪽이 읽어 둔 상태로 판단하지 않음).
+ */
+@Component
+public class VideoStatusUpdater {
+
+    public static final String HEYGEN_FAILED = "HeyGen 영상 생성 실패";
+
+    private final VideoRequestRepository repository;
+    private final JpaExecutor jpa;
+    private final VideoStatusHub hub;
+
+    public VideoStatusUpdater(VideoRequestRepository repository, JpaExecutor jpa, VideoStatusHub hub) {
+        this.repository = repository;
+        this.jpa = jpa;
+        this.hub = hub;
+    }
+
+    /** HeyGen video_id 로 찾아 반영. 전이가 일어났으면 true, 없는 ID/이미 끝난 행이면 false */
+    public Mono<Boolean> apply(String videoId, boolean success, String videoUrl) {
+        return jpa.tx(() -> repository.findByVideoId(videoId)
+                        .or(() -> repository.findByJobId(videoId)) // 파이프라인 이전 행
+                        .map(vr -> success ? complete(vr, videoUrl) : fail(vr, HEYGEN_FAILED))
+                        .orElse(null))
+                .doOnNext(hub::publish)
+                .hasElement();
+    }
+
+    /** 트랜잭션 안에서 호출. 전이가 일어나면 (커밋 후 publish 할) 이벤트, 아니면 null */
+    public VideoStatusEvent complete(VideoRequest vr, String videoUrl) {
+        if (repository.completeIfProcessing(vr.getId(), videoUrl) == 0) return null;
+        return new VideoStatusEvent(vr.getJobId(), "DONE", videoUrl, "DONE", null);
+    }
+
+    /** 파이프라인 단계 실패 또는 HeyGen 실패. 트랜잭션 안에서 호출. 단계는 실패한 그대로 둔다 */
+    public VideoStatusEvent fail(VideoRequest vr, String error) {
+        if (repository.failIfActive(vr.getId(), error) == 0) return null;
+        return new VideoStatusEvent(vr.getJobId(), "ERROR", null, vr.getStage(), error);
+    }
+
+    public void publish(VideoStatusEvent event) {
+        hub.publish(event);
+    }
+}
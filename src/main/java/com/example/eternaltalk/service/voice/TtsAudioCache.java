@@ -0,0 +1,158 @@
+package com.example.eternaltalk.service.voice;
+
+import com.example.eternaltalk.client.ElevenLabsClient;
+import com.example.eternaltalk.client.codec.ElevenLabsPayloads.TtsRequest;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.voice.TtsAudio;
+import com.example.eternaltalk.repository.TtsAudioRepository;
+import com.example.eternaltalk.storage.S3Uploader;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 내용 주소 방식 TTS 음성 캐시.
+ * 키 = sha256(voiceId, text, voice_settings, output_format) → S3 tts/{키}.mp3
+ * 조회 순서: 메모리 색인(Caffeine) → tts_audio 테이블 → ElevenLabs 합성 + S3 업로드 + 행 저장.
+ * 반복 요청은 벤더 호출/업로드 없이 새 presigned URL 만 발급한다.
+ * 같은 키의 동시 미스는 하나의 합성을 공유한다(single-flight). 실패한 합성은 색인에 남지 않는다.
+ */
+@Component
+public class TtsAudioCache {
+
+    private final ElevenLabsClient eleven;
+    private final S3Uploader s3;
+    private final TtsAudioRepository repository;
+    private final JpaExecutor jpa;
+    private final boolean enabled;
+    private final int maxAudioBytes;
+    private final AsyncCache<String, String> index; // cache_key → s3_key
+    private final Counter hot;
+    private final Counter stored;
+    private final Counter synthesized;
+
+    public TtsAudioCache(ElevenLabsClient eleven, S3Uploader s3, TtsAudioRepository repository,
+                         JpaExecutor jpa, MeterRegistry registry,
+                         @Value("${voice.tts-cache.enabled:true}") boolean enabled,
+                         @Value("${voice.tts-cache.max-entries:100000}") long maxEntries,
+                         @Value("${voice.tts-cache.expire-after-access:24h}") Duration expireAfterAccess,
+                         @Value("${voice.tts-cache.max-audio-size:5MB}") DataSize maxAudioSize) {
+        this.eleven = eleven;
+        this.s3 = s3;
+        this.repository = repository;
+        this.jpa = jpa;
+        this.enabled = enabled;
+        this.maxAudioBytes = (int) maxAudioSize.toBytes();
+        this.index = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(expireAfterAccess)
+                .buildAsync();
+        this.hot = Counter.builder("voice.tts_cache.requests").tag("result", "hot").register(registry);
+        this.stored = Counter.builder("voice.tts_cache.requests").tag("result", "stored").register(registry);
+        this.synthesized = Counter.builder("voice.tts_cache.requests").tag("result", "miss").register(registry);
+    }
+
+    /** voiceId 로 text 를 합성한 mp3 의 presigned URL */
+    public Mono<String> audioUrl(String voiceId, String text) {
+        return s3Key(voiceId, text).map(s3::presign);
+    }
+
+    /** voiceId 로 text 를 합성한 mp3 의 S3 키. 캐시 끄면 매번 합성 (키는 같으므로 같은 객체를 덮어씀) */
+    public Mono<String> s3Key(String voiceId, String text) {
+        TtsRequest request = request(text);
+        String cacheKey = cacheKey(voiceId, request);
+        if (!enabled) return synthesize(cacheKey, voiceId, request);
+
+        return Mono.defer(() -> {
+            boolean[] loaded = new boolean[1];
+            CompletableFuture<String> future = index.get(cacheKey, (k, executor) -> {
+                loaded[0] = true;
+                return load(k, voiceId, request).toFuture();
+            });
+            if (!loaded[0]) hot.increment();
+            // 공유 future 이므로 이 구독이 취소돼도 합성은 계속 (다른 대기자/다음 요청이 사용)
+            return Mono.fromFuture(future, true);
+        });
+    }
+
+    /** 같은 (voiceId, text) 요청을 묶는 키 (음성 작업 중복 제거에도 사용) */
+    public static String cacheKey(String voiceId, String text) {
+        return cacheKey(voiceId, request(text));
+    }
+
+    // ---- Helpers ----
+
+    /** 테이블에 있으면 그 s3_key, 없으면 합성 */
+    private Mono<String> load(String cacheKey, String voiceId, TtsRequest request) {
+        return jpa.call(() -> repository.findByCacheKey(cacheKey).map(TtsAudio::getS3Key).orElse(""))
+                .flatMap(s3Key -> {
+                    if (!s3Key.isEmpty()) {
+                        stored.increment();
+                        return Mono.just(s3Key);
+                    }
+                    return synthesize(cacheKey, voiceId, request);
+                });
+    }
+
+    /**
+     * ElevenLabs 합성(mp3 를 max-audio-size 까지 버퍼 하나로 받음) → S3 PutObject 1회 → 행 저장.
+     * 벤더 동시성 허가는 합성 응답을 다 받으면 반환되고 S3 업로드는 허가 밖에서 한다.
+     * 동시에 다른 노드가 먼저 저장했으면 그대로 둔다.
+     */
+    private Mono<String> synthesize(String cacheKey, String voiceId, TtsRequest request) {
+        String s3Key = "tts/" + cacheKey + ".mp3";
+        return eleven.tts(voiceId, request, maxAudioBytes)
+                .flatMap(audio -> s3.uploadBuffer(s3Key, audio, "audio/mpeg"))
+                .doOnSuccess(size -> synthesized.increment())
+                .flatMap(size -> jpa.call(() -> {
+                    try {
+                        repository.save(TtsAudio.builder()
+                                .cacheKey(cacheKey)
+                                .voiceId(voiceId)
+                                .s3Key(s3Key)
+                                .sizeBytes(size)
+                                .build());
+                    } catch (DataIntegrityViolationException dup) {
+                        // uk_tts_audio_cache_key: 같은 내용이 이미 저장됨 (S3 객체도 같은 키)
+                    }
+                    return s3Key;
+                }));
+    }
+
+    private static TtsRequest request(String text) {
+        return ElevenLabsClient.ttsRequest(Normalizer.normalize(text, Normalizer.Form.NFC));
+    }
+
+    static String cacheKey(String voiceId, TtsRequest request) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            update(md, voiceId);
+            update(md, request.text());
+            update(md, Double.toString(request.voiceSettings().stability()));
+            update(md, Double.toString(request.voiceSettings().similarityBoost()));
+            update(md, request.outputFormat());
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest md, String s) {
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.eternaltalk.service.voice;
+
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.voice.VoiceJob;
+import com.example.eternaltalk.repository.VoiceJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비동기 음성 생성 작업 실행기.
+ * - 요청은 voice_job 행(QUEUED)만 만들고 즉시 jobId 반환, 합성은 고정 크기 워커 풀에서 실행
+ * - 같은 사용자가 같은 (voiceId, text) 를 진행 중이면 기존 작업을 돌려준다
+ *   (동시 삽입 경합으로 행이 둘 생겨도 실제 합성은 TtsAudioCache 가 한 번으로 묶는다)
+ * - 대기열이 차면 503. 노드가 죽어 끝나지 못한 작업은 ERROR 로 정리
+ *   (RUNNING 은 시작 후 stale-after, QUEUED 는 대기열에서 잃어버린 경우만 생성 후 queued-stale-after)
+ * - 상태 전이는 조건부 UPDATE (QUEUED → RUNNING → DONE/ERROR). 정리된 작업을 워커가 되살리지 않는다
+ */
+@Component
+public class VoiceJobService {
+
+    public static final String QUEUED = "QUEUED", RUNNING = "RUNNING", DONE = "DONE", ERROR = "ERROR";
+    public static final List<String> ACTIVE = List.of(QUEUED, RUNNING);
+
+    private static final Logger log = LoggerFactory.getLogger(VoiceJobService.class);
+
+    private final VoiceJobRepository repository;
+    private final TtsAudioCache ttsAudio;
+    private final JpaExecutor jpa;
+    private final ThreadPoolExecutor workers;
+    private final Duration jobTimeout;
+    private final Duration staleAfter;
+    private final Duration queuedStaleAfter;
+
+    public VoiceJobService(VoiceJobRepository repository, TtsAudioCache ttsAudio, JpaExecutor jpa,
+                           @Value("${voice.jobs.workers:4}") int workers,
+                           @Value("${voice.jobs.queue-capacity:200}") int queueCapacity,
+                           @Value("${voice.jobs.timeout:60s}") Duration jobTimeout,
+                           @Value("${voice.jobs.stale-after:10m}") Duration staleAfter,
+                           @Value("${voice.jobs.queued-stale-after:2h}") Duration queuedStaleAfter) {
+        this.repository = repository;
+        this.ttsAudio = ttsAudio;
+        this.jpa = jpa;
+        this.jobTimeout = jobTimeout;
+        this.staleAfter = staleAfter;
+        this.queuedStaleAfter = queuedStaleAfter;
+        this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("voice-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /** 진행 중인 같은 작업이 있으면 그것을, 없으면 새 작업을 만들어 워커 풀에 넣는다 */
+    public Mono<VoiceJob> submit(Long userId, String voiceId, String text) {
+        String cacheKey = TtsAudioCache.cacheKey(voiceId, text);
+        return jpa.tx(() -> repository.findFirstByUserIdAndCacheKeyAndStatusIn(userId, cacheKey, ACTIVE)
+                        .map(existing -> new Submitted(existing, false))
+                        .orElseGet(() -> new Submitted(repository.save(VoiceJob.builder()
+                                .jobId(UUID.randomUUID().toString())
+                                .userId(userId)
+                                .voiceId(voiceId)
+                                .cacheKey(cacheKey)
+                                .text(text)
+                                .status(QUEUED)
+                                .build()), true)))
+                .flatMap(s -> s.created() ? dispatch(s.job()) : Mono.just(s.job()));
+    }
+
+    public Mono<VoiceJob> find(Long userId, String jobId) {
+        return jpa.call(() -> repository.findByJobIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("해당 jobId가 없습니다.")));
+    }
+
+    @Scheduled(fixedDelayString = "${voice.jobs.sweep-interval-ms:60000}")
+    void failStale() {
+        LocalDateTime now = LocalDateTime.now();
+        int n = repository.failStale(now.minus(staleAfter), now.minus(queuedStaleAfter),
+                "작업이 중단되었습니다. 다시 요청해 주세요.");
+        if (n > 0) log.warn("끝나지 못한 음성 작업 {}건 ERROR 처리", n);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    // ---- Helpers ----
+
+    private Mono<VoiceJob> dispatch(VoiceJob job) {
+        try {
+            workers.execute(() -> run(job));
+            return Mono.just(job);
+        } catch (RejectedExecutionException e) {
+            return jpa.call(() -> repository.finish(job.getJobId(), QUEUED, ERROR, null, "대기열 초과"))
+                    .then(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "요청이 많아 잠시 후 다시 시도해 주세요.")));
+        }
+    }
+
+    /** 워커 스레드: QUEUED → RUNNING → 합성(TTS 캐시) → DONE/ERROR. 이미 정리된 작업이면 건너뛴다 */
+    private void run(VoiceJob job) {
+        try {
+            if (repository.start(job.getJobId(), LocalDateTime.now()) == 0) return;
+            String s3Key = ttsAudio.s3Key(job.getVoiceId(), job.getText()).block(jobTimeout);
+            repository.finish(job.getJobId(), RUNNING, DONE, s3Key, null);
+        } catch (RuntimeException e) {
+            log.warn("음성 작업 실패 jobId={}: {}", job.getJobId(), e.getMessage());
+            try {
+                repository.finish(job.getJobId(), RUNNING, ERROR, null, truncate(String.valueOf(e.getMessage())));
+            } catch (RuntimeException ignored) {
+                // DB 장애 시 stale 정리에 맡김
+            }
+        }
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= 500 ? s : s.substring(0, 500);
+    }
+
+    private record Submitted(VoiceJob job, boolean created) {}
+}
@@ -0,0 +1,100 @@
+package com.example.eternaltalk.service.voice;
+
+import com.example.eternaltalk.client.ElevenLabsClient;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.voice.RetiredVoice;
+import com.example.eternaltalk.repository.MemoryProfileRepository;
+import com.example.eternaltalk.repository.RetiredVoiceRepository;
+import com.example.eternaltalk.repository.VideoRequestRepository;
+import com.example.eternaltalk.repository.VoiceJobRepository;
+import com.example.eternaltalk.service.video.VideoPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 교체된 ElevenLabs 보이스의 지연 삭제.
+ * 비동기 음성 작업/영상 TTS 단계는 등록할 때의 voice_id 를 들고 있으므로, 교체 직후 지우면 그 작업들이 4xx 로 실패한다.
+ * - retire: 프로필 교체와 같은 트랜잭션에서 retired_voice 행만 남긴다
+ * - 스윕: grace 가 지난 행 중 다시 프로필에 쓰이면 행만 지우고, 진행 중인 음성 작업(QUEUED/RUNNING)이나
+ *   TTS 단계 영상 요청이 쓰면 다음 스윕으로 미루고, 아무도 쓰지 않으면 벤더에서 삭제 후 행을 지운다
+ * grace 는 프로필을 읽은 뒤 작업을 등록하기까지(동기 /generate 포함)의 틈을 덮는다.
+ */
+@Component
+public class VoiceRetirement {
+
+    private static final Logger log = LoggerFactory.getLogger(VoiceRetirement.class);
+
+    private final RetiredVoiceRepository repository;
+    private final MemoryProfileRepository profiles;
+    private final VoiceJobRepository voiceJobs;
+    private final VideoRequestRepository videoRequests;
+    private final ElevenLabsClient eleven;
+    private final JpaExecutor jpa;
+    private final Duration grace;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public VoiceRetirement(RetiredVoiceRepository repository, MemoryProfileRepository profiles,
+                           VoiceJobRepository voiceJobs, VideoRequestRepository videoRequests,
+                           ElevenLabsClient eleven, JpaExecutor jpa,
+                           @Value("${voice.retire.grace:2m}") Duration grace) {
+        this.repository = repository;
+        this.profiles = profiles;
+        this.voiceJobs = voiceJobs;
+        this.videoRequests = videoRequests;
+        this.eleven = eleven;
+        this.jpa = jpa;
+        this.grace = grace;
+    }
+
+    /** 삭제 대기로 등록 (호출자 트랜잭션 안에서) */
+    public void retire(Long userId, String voiceId) {
+        if (voiceId == null || voiceId.isBlank() || repository.existsByVoiceId(voiceId)) return;
+        repository.save(RetiredVoice.builder().userId(userId).voiceId(voiceId).build());
+    }
+
+    @Scheduled(fixedDelayString = "${voice.retire.sweep-interval-ms:60000}")
+    void sweep() {
+        if (!sweeping.compareAndSet(false, true)) return; // 이전 스윕의 벤더 삭제가 아직 진행 중
+        List<RetiredVoice> unused = new ArrayList<>();
+        try {
+            for (RetiredVoice rv : repository.findTop50ByRetiredAtBeforeOrderByRetiredAt(LocalDateTime.now().minus(grace))) {
+                if (profiles.existsByVoiceCloneId(rv.getVoiceId())) {
+                    repository.delete(rv); // 다시 프로필에 반영됨 (취소된 업로드의 교체가 커밋된 경우 등)
+                } else if (!inUse(rv.getVoiceId())) {
+                    unused.add(rv);
+                }
+            }
+        } catch (RuntimeException e) {
+            sweeping.set(false);
+            log.warn("보이스 삭제 스윕 실패: {}", e.getMessage());
+            return;
+        }
+        Flux.fromIterable(unused)
+                .concatMap(rv -> eleven.deleteVoice(rv.getVoiceId())
+                        .then(jpa.call(() -> { repository.delete(rv); return rv; }))
+                        .onErrorResume(e -> {
+                            log.warn("보이스 삭제 실패 voiceId={} (다음 스윕에서 재시도): {}", rv.getVoiceId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .doFinally(s -> sweeping.set(false))
+                .subscribe();
+    }
+
+    // ---- Helpers ----
+
+    private boolean inUse(String voiceId) {
+        return voiceJobs.existsByVoiceIdAndStatusIn(voiceId, VoiceJobService.ACTIVE)
+                || videoRequests.existsByVoiceIdAndStatusAndStage(voiceId, "PENDING", VideoPipeline.TTS);
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
@@ -25,6 +27,22 @@ public class S3Config {
                 .build();
     }
 
+    /** 논블로킹 업로드(TTS 결과 저장)용 클라이언트 */
+    @Bean
+    public S3AsyncClient s3AsyncClient(
+            @Value("${S3_REGION}") String region,
+            @Value("${S3_ACCESS_KEY}") String accessKey,
+            @Value("${S3_SECRET_KEY}") String secretKey,
+            @Value("${storage.s3.async-max-concurrency:64}") int maxConcurrency
+    ){
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(accessKey, secretKey)))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(maxConcurrency))
+                .build();
+    }
+
     @Bean
     public S3Presigner s3Presigner(
             @Value("${S3_REGION}") String region,
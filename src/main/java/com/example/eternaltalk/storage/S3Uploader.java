@@ -1,27 +1,36 @@
 package com.example.eternaltalk.storage;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 
 @Component
 public class S3Uploader {
     private final S3Client s3;
+    private final S3AsyncClient s3Async;
     private final S3Presigner presigner;
 
     @Value("${S3_BUCKET}")
     private String bucket;
 
-    public S3Uploader(S3Client s3, S3Presigner presigner) {
-        this.s3 = s3; this.presigner = presigner;
+    public S3Uploader(S3Client s3, S3AsyncClient s3Async, S3Presigner presigner) {
+        this.s3 = s3; this.s3Async = s3Async; this.presigner = presigner;
     }
 
     public String uploadBytes(String key, byte[] data, String contentType){
@@ -32,7 +41,43 @@ public class S3Uploader {
         return presign(key);
     }
 
-    private String presign(String key){
+    /**
+     * 길이를 아는 스트림(업로드된 MultipartFile 등)을 그대로 업로드. SDK 가 청크 단위로 읽어 보내므로
+     * 파일 전체를 힙에 올리지 않는다. 동기 호출(블로킹).
+     */
+    public String upload(String key, InputStreamSource source, long length, String contentType) throws IOException {
+        PutObjectRequest put = PutObjectRequest.builder()
+                .bucket(bucket).key(key)
+                .contentType(contentType)
+                .contentLength(length).build();
+        try (InputStream in = source.getInputStream()) {
+            s3.putObject(put, RequestBody.fromInputStream(in, length));
+        }
+        return presign(key);
+    }
+
+    /**
+     * 이미 받아 둔 본문(버퍼 하나)을 PutObject 1회로 올린다. 업로드한 바이트 수 반환. 블로킹 없음.
+     * 본문 전체가 이미 메모리에 있는 경우용 (스트리밍 아님). 버퍼는 성공/실패/취소와 관계없이 여기서 release.
+     */
+    public Mono<Long> uploadBuffer(String key, DataBuffer data, String contentType){
+        return Mono.defer(() -> {
+                    long size = data.readableByteCount();
+                    ByteBuffer body = ByteBuffer.allocate((int) size);
+                    try {
+                        data.toByteBuffer(data.readPosition(), body, 0, (int) size);
+                    } finally {
+                        DataBufferUtils.release(data); // 복사 후 바로 (Netty 풀 버퍼를 업로드 동안 잡지 않음)
+                    }
+                    return Mono.fromFuture(() -> s3Async.putObject(PutObjectRequest.builder()
+                                    .bucket(bucket).key(key).contentType(contentType).contentLength(size).build(),
+                            AsyncRequestBody.fromByteBufferUnsafe(body)))
+                            .thenReturn(size);
+                });
+    }
+
+    /** 저장된 객체의 GET presigned URL (12시간, 로컬 서명 계산만 하고 네트워크 호출 없음) */
+    public String presign(String key){
         GetObjectRequest get = GetObjectRequest.builder()
                 .bucket(bucket).key(key).build();
         GetObjectPresignRequest req = GetObjectPresignRequest.builder()
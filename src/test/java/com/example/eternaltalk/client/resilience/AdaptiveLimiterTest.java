@@ -0,0 +1,103 @@
+package com.example.eternaltalk.client.resilience;
+
+import com.example.eternaltalk.client.VendorException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** AdaptiveLimiter: AIMD 한도 조정, 대기열 초과 거절, 대기/실행 중 취소 시 허가 반환 */
+class AdaptiveLimiterTest {
+
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    @Test
+    void fastSuccessAtHighUtilizationRaisesLimit() {
+        AdaptiveLimiter limiter = limiter(2, 1);
+
+        limiter.run(Mono.just(1)).block();
+
+        assertThat(limiter.limit()).isEqualTo(3);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void overloadSignalsCutLimitButClientErrorsDoNot() {
+        AdaptiveLimiter limiter = limiter(8, 1);
+
+        assertThatThrownBy(() -> limiter.run(Mono.error(new VendorException("test", 503, "down"))).block())
+                .isInstanceOf(VendorException.class);
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        assertThatThrownBy(() -> limiter.run(Mono.error(new VendorException("test", 400, "bad input"))).block())
+                .isInstanceOf(VendorException.class);
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void slowSuccessCutsLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test",
+                new AdaptiveLimiter.Settings(8, 1, 10, 1, Duration.ofSeconds(5), Duration.ofMillis(10), 0.5),
+                rejected::incrementAndGet);
+
+        limiter.run(Mono.delay(Duration.ofMillis(50))).block();
+
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFullAndGrantsQueuedCallOnRelease() {
+        AdaptiveLimiter limiter = limiter(1, 1);
+        Sinks.One<Integer> first = Sinks.one();
+        AtomicInteger queuedResult = new AtomicInteger();
+
+        limiter.run(first.asMono()).subscribe();
+        limiter.run(Mono.just(2)).subscribe(queuedResult::set);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.queued()).isEqualTo(1);
+
+        assertThatThrownBy(() -> limiter.run(Mono.just(3)).block())
+                .isInstanceOf(VendorOverloadedException.class);
+        assertThat(rejected).hasValue(1);
+
+        first.tryEmitValue(1);
+
+        assertThat(queuedResult).hasValue(2);
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void cancellingQueuedOrRunningCallsGivesPermitsBack() {
+        AdaptiveLimiter limiter = limiter(1, 5);
+
+        Disposable running = limiter.run(Mono.never()).subscribe();
+        Disposable waiting = limiter.run(Mono.just(2)).subscribe();
+        assertThat(limiter.queued()).isEqualTo(1);
+
+        waiting.dispose();
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        running.dispose();
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(1); // 취소는 한도 조정에 쓰지 않음
+
+        assertThat(limiter.run(Mono.just(3)).block()).isEqualTo(3);
+        assertThat(rejected).hasValue(0);
+    }
+
+    // ---- Helpers ----
+
+    private AdaptiveLimiter limiter(int initialLimit, int maxQueue) {
+        return new AdaptiveLimiter("test",
+                new AdaptiveLimiter.Settings(initialLimit, 1, 10, maxQueue, Duration.ofSeconds(5), Duration.ofSeconds(1), 0.5),
+                rejected::incrementAndGet);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.eternaltalk.client.resilience;
+
+import com.example.eternaltalk.client.VendorException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** CircuitBreaker: CLOSED → OPEN → HALF_OPEN → CLOSED 전이와 시간 창 밖 결과 제외 (시계는 수동) */
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker("test",
+            new CircuitBreaker.Settings(10, Duration.ofSeconds(60), 2,
+                    new CircuitBreaker.Rule(3, Duration.ofSeconds(10)),
+                    new CircuitBreaker.Rule(3, Duration.ofSeconds(30)),
+                    new CircuitBreaker.Rule(3, Duration.ofSeconds(30))),
+            now::get);
+
+    @Test
+    void opensHalfOpensAndClosesAgain() {
+        serverErrors(3);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.run(Mono.just(1)).block()).isInstanceOf(CircuitOpenException.class);
+
+        advance(Duration.ofSeconds(31));
+        assertThat(breaker.run(Mono.just(1)).block()).isEqualTo(1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(breaker.run(Mono.just(2)).block()).isEqualTo(2);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        serverErrors(3);
+        advance(Duration.ofSeconds(31));
+
+        assertThatThrownBy(() -> breaker.run(Mono.error(new TimeoutException())).block());
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenLetsOnlyConfiguredProbesThrough() {
+        serverErrors(3);
+        advance(Duration.ofSeconds(31));
+
+        breaker.run(Mono.never()).subscribe();
+        breaker.run(Mono.never()).subscribe();
+
+        assertThatThrownBy(() -> breaker.run(Mono.just(3)).block()).isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void errorsOlderThanWindowDurationDoNotCount() {
+        serverErrors(2);
+        advance(Duration.ofSeconds(61));
+
+        serverErrors(1);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void clientErrorsAreNotCounted() {
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> breaker.run(Mono.error(new VendorException("test", 400, "bad"))).block());
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    // ---- Helpers ----
+
+    private void serverErrors(int n) {
+        for (int i = 0; i < n; i++) {
+            assertThatThrownBy(() -> breaker.run(Mono.error(new VendorException("test", 503, "down"))).block())
+                    .isInstanceOf(VendorException.class);
+        }
+    }
+
+    private void advance(Duration d) {
+        now.addAndGet(d.toNanos());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.eternaltalk.service.chat;
+
+import com.example.eternaltalk.domain.chat.ChatMessage;
+import com.example.eternaltalk.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** ConversationHistory: 실패한 배치는 새 메시지보다 먼저 저장, 큐가 넘치면 세고 버림 (DB 는 JdbcTemplate 목) */
+class ConversationHistoryTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    /** 저장된 content 순서 (= id 순서) */
+    private final List<String> stored = new ArrayList<>();
+    private boolean dbDown;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    if (dbDown) throw new QueryTimeoutException("db down");
+                    for (Object o : (Collection<?>) inv.getArgument(1)) stored.add(((ChatMessage) o).getContent());
+                    return new int[0][];
+                });
+    }
+
+    @Test
+    void failedBatchIsWrittenBeforeNewerTurns() {
+        ConversationHistory history = history(100);
+        dbDown = true;
+        history.append(1L, "q1", "a1");
+        history.flush();
+        history.append(1L, "q2", "a2");
+
+        dbDown = false;
+        history.flush();
+
+        assertThat(stored).containsExactly("q1", "a1", "q2", "a2");
+    }
+
+    @Test
+    void fullQueueFlushesInOrderAndCountsWhatItCannotKeep() {
+        ConversationHistory history = history(2);
+        history.append(1L, "q1", "a1");
+        history.append(1L, "q2", "a2"); // 큐가 가득 → 호출 스레드에서 앞선 것부터 저장
+        assertThat(stored).containsExactly("q1", "a1");
+
+        dbDown = true;
+        history.append(1L, "q3", "a3"); // q2, a2 는 실패 배치로, q3, a3 는 큐로
+        history.append(1L, "q4", "a4"); // 큐도 DB 도 받지 못함
+
+        assertThat(registry.counter("chat.history.dropped").count()).isEqualTo(2);
+        dbDown = false;
+        history.flush();
+        assertThat(stored).containsExactly("q1", "a1", "q2", "a2", "q3", "a3");
+    }
+
+    // ---- Helpers ----
+
+    private ConversationHistory history(int queueCapacity) {
+        return new ConversationHistory(mock(ChatMessageRepository.class), jdbc, registry, 10, 100, 200, queueCapacity);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.eternaltalk.service.chat;
+
+import com.example.eternaltalk.repository.UsageJournalCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** UsageJournal: 누산/조회, 배치 반영, 실패 시 되돌림, 재기동 재생 (DB 는 JdbcTemplate 목) */
+class UsageJournalTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 18);
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final UsageJournalCheckpointRepository checkpoints = mock(UsageJournalCheckpointRepository.class);
+    private final TransactionTemplate tx = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    /** 반영된 (userId → 글자 수) 배치들 */
+    private final List<Map<Long, Integer>> persisted = new ArrayList<>();
+    /** 반영 중(batchUpdate 안)에 관찰한 pending 값 */
+    private final List<Integer> pendingDuringPersist = new ArrayList<>();
+    private int failuresLeft;
+    private UsageJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(checkpoints.findById(anyString())).thenReturn(Optional.empty());
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    if (journal != null) pendingDuringPersist.add(journal.pending(1L, DAY));
+                    if (failuresLeft > 0) {
+                        failuresLeft--;
+                        throw new QueryTimeoutException("db down");
+                    }
+                    persisted.add(rows(inv.getArgument(1)));
+                    return new int[0][];
+                });
+        journal = newJournal();
+    }
+
+    @Test
+    void pendingCountsUnflushedUsageUntilFlushed() {
+        journal.append(1L, DAY, 10);
+        journal.append(1L, DAY, 20);
+        journal.append(2L, DAY, 5);
+        assertThat(journal.pending(1L, DAY)).isEqualTo(30);
+
+        journal.flush();
+
+        assertThat(persisted).containsExactly(Map.of(1L, 30, 2L, 5));
+        assertThat(journal.pending(1L, DAY)).isZero();
+    }
+
+    @Test
+    void pendingDoesNotDoubleCountWhileFlushing() {
+        journal.append(1L, DAY, 30);
+
+        journal.flush();
+
+        // 반영 중에는 스냅샷만 한 번 센다 (누산기와 스냅샷에 동시에 잡히지 않음)
+        assertThat(pendingDuringPersist).containsExactly(30);
+    }
+
+    @Test
+    void failedFlushKeepsUsagePendingAndRetriesWithNewUsage() {
+        failuresLeft = 1;
+        journal.append(1L, DAY, 30);
+
+        journal.flush();
+        assertThat(persisted).isEmpty();
+        assertThat(journal.pending(1L, DAY)).isEqualTo(30);
+
+        journal.append(1L, DAY, 5);
+        journal.flush();
+
+        assertThat(persisted).containsExactly(Map.of(1L, 35));
+        assertThat(journal.pending(1L, DAY)).isZero();
+    }
+
+    @Test
+    void restartReplaysSegmentsThatWereNeverFlushed() throws Exception {
+        failuresLeft = 1;
+        journal.append(1L, DAY, 7);
+        journal.flush(); // 실패 → 세그먼트가 디스크에 남음
+        assertThat(Files.list(dir).filter(p -> p.getFileName().toString().startsWith("usage-")).count()).isPositive();
+
+        journal = null; // 크래시 가정 (shutdown 의 flush 없이 새 인스턴스)
+        newJournal();
+
+        assertThat(persisted).containsExactly(Map.of(1L, 7));
+    }
+
+    // ---- Helpers ----
+
+    private UsageJournal newJournal() throws Exception {
+        UsageJournal j = new UsageJournal(jdbc, tx, checkpoints, dir.toString(), false);
+        j.start();
+        return j;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Integer> rows(Collection<?> batch) {
+        Map<Long, Integer> out = new java.util.HashMap<>();
+        for (Object o : batch) {
+            Map.Entry<?, AtomicInteger> e = (Map.Entry<?, AtomicInteger>) o;
+            Long userId = userId(e.getKey());
+            out.merge(userId, e.getValue().get(), Integer::sum);
+        }
+        return out;
+    }
+
+    private static Long userId(Object key) {
+        try {
+            var m = key.getClass().getDeclaredMethod("userId");
+            m.setAccessible(true);
+            return (Long) m.invoke(key);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
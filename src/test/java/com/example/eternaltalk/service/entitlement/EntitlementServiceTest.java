@@ -0,0 +1,50 @@
+package com.example.eternaltalk.service.entitlement;
+
+import com.example.eternaltalk.domain.Plan;
+import com.example.eternaltalk.domain.User;
+import com.example.eternaltalk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/** EntitlementService: 요금제 변경은 커밋 뒤에 캐시를 비운다 (트랜잭션 동기화는 수동) */
+class EntitlementServiceTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final EntitlementService service = new EntitlementService(users,
+            new EntitlementProperties(null, Duration.ofMinutes(10), 100L));
+    private final User user = User.builder().id(1L).plan(Plan.FREE).build();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void cacheFilledBeforeCommitIsClearedAfterCommit() {
+        when(users.findById(1L)).thenReturn(Optional.of(user));
+        when(users.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        Entitlements changed = service.changePlan(1L, Plan.GOLD);
+        assertThat(changed.plan()).isEqualTo(Plan.GOLD);
+
+        // 커밋 전 동시 조회가 (아직 커밋되지 않은) 이전 요금제를 캐시에 넣음
+        User committed = User.builder().id(1L).plan(Plan.FREE).build();
+        when(users.findById(1L)).thenReturn(Optional.of(committed));
+        assertThat(service.of(1L).plan()).isEqualTo(Plan.FREE);
+
+        committed.setPlan(Plan.GOLD);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(service.of(1L).plan()).isEqualTo(Plan.GOLD);
+    }
+}
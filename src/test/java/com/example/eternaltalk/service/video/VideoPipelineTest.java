@@ -0,0 +1,258 @@
+package com.example.eternaltalk.service.video;
+
+import com.example.eternaltalk.client.HeygenClient;
+import com.example.eternaltalk.client.VendorException;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.video.VideoRequest;
+import com.example.eternaltalk.repository.VideoLastGeneratedRepository;
+import com.example.eternaltalk.repository.VideoRequestRepository;
+import com.example.eternaltalk.service.voice.TtsAudioCache;
+import com.example.eternaltalk.storage.S3Uploader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * VideoPipeline: 선점/펜싱/반환/백오프/시도 소진, SUBMIT_VIDEO 재시도·선점 정책.
+ * DB 는 메모리의 행 하나 (리포지토리 목), 트랜잭션은 락 하나로 직렬화 (FOR UPDATE 대신)
+ */
+class VideoPipelineTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private final VideoRequestRepository repository = mock(VideoRequestRepository.class);
+    private final VideoLastGeneratedRepository lastGenerated = mock(VideoLastGeneratedRepository.class);
+    private final TtsAudioCache ttsAudio = mock(TtsAudioCache.class);
+    private final S3Uploader s3 = mock(S3Uploader.class);
+    private final HeygenClient heygen = mock(HeygenClient.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReentrantLock txLock = new ReentrantLock();
+    private final VideoRequest row = VideoRequest.builder()
+            .id(1L).userId(7L).jobId("job-1").status("PENDING").stageAttempts(0)
+            .stageDueAt(LocalDateTime.now()).photoUrl("https://photo").voiceId("voice").text("안녕")
+            .createdAt(CREATED).build();
+    private VideoPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.lockDueStage(anyString(), any(), anyInt())).thenAnswer(inv -> {
+            String stage = inv.getArgument(0);
+            LocalDateTime now = inv.getArgument(1);
+            boolean due = "PENDING".equals(row.getStatus()) && stage.equals(row.getStage())
+                    && row.getStageDueAt() != null && !row.getStageDueAt().isAfter(now);
+            return due ? List.of(row) : List.of();
+        });
+        when(repository.findForUpdateById(1L)).thenReturn(Optional.of(row));
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(repository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(repository.failIfActive(eq(1L), anyString())).thenAnswer(inv -> {
+            row.setStatus("ERROR");
+            row.setError(inv.getArgument(1));
+            return 1;
+        });
+        when(s3.presign(anyString())).thenAnswer(inv -> "https://s3/" + inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) pipeline.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked") // thenReturn(Mono...) 가변 인자
+    void staleRunCannotAdvanceRowAfterItIsReclaimed() {
+        row.setStage(VideoPipeline.TTS);
+        CompletableFuture<String> firstRun = new CompletableFuture<>();
+        when(ttsAudio.s3Key("voice", "안녕")).thenReturn(Mono.fromFuture(firstRun), Mono.just("fresh-key"));
+        when(heygen.createAvatarIVVideo(any(), any(), any(), any(), any())).thenReturn(Mono.just("video-1"));
+        pipeline = pipeline(Duration.ofSeconds(5));
+
+        pipeline.sweep(); // 시도 1: TTS 에서 멈춤
+        await().until(() -> locked(row::getStageAttempts) == 1 && runs("TTS") == 0);
+        pipeline.sweep(); // lease(0) 가 지나 시도 2 로 다시 선점 → AWAIT 까지
+        await().until(() -> "PROCESSING".equals(locked(row::getStatus)));
+
+        firstRun.complete("stale-key"); // 늦게 끝난 시도 1
+        await().until(() -> registry.counter("video.pipeline.stages", "stage", "TTS", "result", "ok").count() == 2);
+
+        assertThat(locked(row::getStage)).isEqualTo(VideoPipeline.AWAIT);
+        assertThat(locked(row::getAudioS3Key)).isEqualTo("fresh-key");
+        assertThat(locked(row::getVideoId)).isEqualTo("video-1");
+        verify(heygen, times(1)).createAvatarIVVideo(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void overloadedVendorIsRetriedWithBackoff() {
+        row.setStage(VideoPipeline.TTS);
+        when(ttsAudio.s3Key(any(), any())).thenReturn(Mono.error(new VendorException("elevenlabs", 503, "down")));
+        pipeline = pipeline(Duration.ofSeconds(5));
+
+        LocalDateTime before = LocalDateTime.now();
+        pipeline.sweep();
+        await().until(() -> registry.counter("video.pipeline.stages", "stage", "TTS", "result", "retry").count() == 1);
+
+        assertThat(locked(row::getStatus)).isEqualTo("PENDING");
+        assertThat(locked(row::getStageAttempts)).isEqualTo(1);
+        assertThat(locked(row::getStageDueAt)).isAfterOrEqualTo(before.plusMinutes(1));
+        verifyNoInteractions(lastGenerated);
+    }
+
+    @Test
+    void submitRejectedByVendorFailsAtOnceAndReleasesCooldown() {
+        row.setStage(VideoPipeline.SUBMIT_VIDEO);
+        row.setAudioUrl("https://audio");
+        when(heygen.createAvatarIVVideo(any(), any(), any(), any(), any()))
+                .thenReturn(Mono.error(new VendorException("heygen", 400, "invalid image: secret detail")));
+        pipeline = pipeline(Duration.ofSeconds(5));
+
+        pipeline.sweep();
+        await().until(() -> "ERROR".equals(locked(row::getStatus)));
+
+        assertThat(locked(row::getError)).isEqualTo("SUBMIT_VIDEO 실패 (heygen 400)");
+        verify(heygen, times(1)).createAvatarIVVideo(any(), any(), any(), any(), any());
+        verify(lastGenerated).releaseIfAt(7L, CREATED);
+    }
+
+    @Test
+    void submitTimeoutIsNotResubmitted() {
+        row.setStage(VideoPipeline.SUBMIT_VIDEO);
+        row.setAudioUrl("https://audio");
+        when(heygen.createAvatarIVVideo(any(), any(), any(), any(), any())).thenReturn(Mono.never());
+        pipeline = pipeline(Duration.ofMillis(100));
+
+        pipeline.sweep();
+        await().until(() -> "ERROR".equals(locked(row::getStatus)));
+
+        assertThat(locked(row::getError)).isEqualTo("SUBMIT_VIDEO 실패 (응답 시간 초과)");
+        verify(heygen, times(1)).createAvatarIVVideo(any(), any(), any(), any(), any());
+        verify(lastGenerated).releaseIfAt(7L, CREATED);
+    }
+
+    @Test
+    void submitIsRetriedOnlyWhenHeygenNeverReceivedTheRequest() {
+        assertThat(VideoPipeline.retryable(VideoPipeline.Stage.SUBMIT_VIDEO,
+                new RuntimeException(new ConnectException("refused")))).isTrue();
+        assertThat(VideoPipeline.retryable(VideoPipeline.Stage.SUBMIT_VIDEO,
+                new VendorException("heygen", 429, "slow down"))).isTrue();
+        assertThat(VideoPipeline.retryable(VideoPipeline.Stage.SUBMIT_VIDEO,
+                new VendorException("heygen", 502, "bad gateway"))).isFalse();
+        assertThat(VideoPipeline.retryable(VideoPipeline.Stage.TTS,
+                new VendorException("elevenlabs", 502, "bad gateway"))).isTrue();
+        assertThat(VideoPipeline.retryable(VideoPipeline.Stage.TTS,
+                new VendorException("elevenlabs", 422, "bad text"))).isFalse();
+    }
+
+    @Test
+    void reclaimedTaskDoesNotSubmitToHeygen() {
+        row.setStage(VideoPipeline.SUBMIT_VIDEO);
+        row.setAudioUrl("https://audio");
+        AtomicBoolean reclaimed = new AtomicBoolean();
+        // 선점과 실행 사이에 다른 노드가 같은 행을 다시 선점 (시도 1 → 2)
+        when(repository.findForUpdateById(1L)).thenAnswer(inv -> {
+            if (reclaimed.compareAndSet(false, true)) row.setStageAttempts(row.getStageAttempts() + 1);
+            return Optional.of(row);
+        });
+        pipeline = pipeline(Duration.ofSeconds(5));
+
+        pipeline.sweep();
+        await().until(() -> registry.counter("video.pipeline.stages", "stage", "SUBMIT_VIDEO", "result", "stale").count() == 1);
+
+        verifyNoInteractions(heygen);
+        assertThat(locked(row::getStatus)).isEqualTo("PENDING");
+    }
+
+    @Test
+    void submitIsClaimedOnlyForIdleWorkers() {
+        row.setStage(VideoPipeline.SUBMIT_VIDEO);
+        row.setAudioUrl("https://audio");
+        when(heygen.createAvatarIVVideo(any(), any(), any(), any(), any())).thenReturn(Mono.never());
+        pipeline = pipeline(Duration.ofSeconds(5));
+
+        pipeline.sweep(); // 시도 1 이 유일한 제출 워커를 차지
+        verify(heygen, timeout(1000)).createAvatarIVVideo(any(), any(), any(), any(), any());
+        pipeline.sweep(); // lease(0) 가 지나 다시 차례지만 놀고 있는 워커가 없음 → 선점하지 않음
+
+        assertThat(locked(row::getStageAttempts)).isEqualTo(1);
+    }
+
+    @Test
+    void rowThatUsedUpItsAttemptsFailsWhenClaimed() {
+        row.setStage(VideoPipeline.TTS);
+        row.setStageAttempts(3); // 마지막 시도가 결과 없이 끝남 (노드 중단 등)
+        pipeline = pipeline(Duration.ofSeconds(5));
+
+        pipeline.sweep();
+
+        assertThat(locked(row::getStatus)).isEqualTo("ERROR");
+        assertThat(locked(row::getError)).isEqualTo("TTS 실패 (시도 횟수 초과)");
+        verify(lastGenerated).releaseIfAt(7L, CREATED);
+        verifyNoInteractions(ttsAudio);
+    }
+
+    @Test
+    void claimIsReleasedWhenWorkersRejectIt() {
+        row.setStage(VideoPipeline.TTS);
+        pipeline = pipeline(Duration.ofSeconds(5));
+        pipeline.shutdown();
+
+        pipeline.sweep();
+
+        assertThat(locked(row::getStatus)).isEqualTo("PENDING");
+        assertThat(locked(row::getStageAttempts)).isZero();
+        verifyNoInteractions(ttsAudio);
+    }
+
+    // ---- Helpers ----
+
+    private VideoPipeline pipeline(Duration stageTimeout) {
+        VideoStatusUpdater updater = new VideoStatusUpdater(repository, mock(JpaExecutor.class), mock(VideoStatusHub.class));
+        return new VideoPipeline(repository, lastGenerated, ttsAudio, s3, heygen, mock(HeygenStatusPoller.class),
+                updater, new TransactionTemplate(lockingTransactions()), registry,
+                2, 1, 1, 10, 10, 3, stageTimeout, Duration.ZERO, Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    /** 트랜잭션 하나 = 락 하나 (행 잠금 흉내) */
+    private PlatformTransactionManager lockingTransactions() {
+        PlatformTransactionManager ptm = mock(PlatformTransactionManager.class);
+        when(ptm.getTransaction(any())).thenAnswer(inv -> {
+            txLock.lock();
+            return mock(TransactionStatus.class);
+        });
+        doAnswer(inv -> { txLock.unlock(); return null; }).when(ptm).commit(any());
+        doAnswer(inv -> { txLock.unlock(); return null; }).when(ptm).rollback(any());
+        return ptm;
+    }
+
+    private <T> T locked(Supplier<T> read) {
+        txLock.lock();
+        try {
+            return read.get();
+        } finally {
+            txLock.unlock();
+        }
+    }
+
+    private double runs(String stage) {
+        return registry.counter("video.pipeline.stages", "stage", stage, "result", "ok").count();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.eternaltalk.service.video;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** VideoStatusHub: 등록/전달/해제, 등록과 전달이 동시에 일어나도 대기자를 잃지 않음 */
+class VideoStatusHubTest {
+
+    private final VideoStatusHub hub = new VideoStatusHub(new InMemoryVideoStatusChannel(), new SimpleMeterRegistry());
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @BeforeEach
+    void setUp() {
+        hub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void deliversOnlyToWaitersOfThatJob() {
+        VideoStatusHub.Waiter a = hub.register("job-a");
+        VideoStatusHub.Waiter b = hub.register("job-b");
+
+        hub.publish(new VideoStatusEvent("job-a", "DONE", "https://video", "DONE", null));
+
+        assertThat(a.result().block()).isEqualTo(new VideoStatusEvent("job-a", "DONE", "https://video", "DONE", null));
+        assertThat(b.result().toFuture()).isNotDone();
+        assertThat(hub.waiting()).isEqualTo(1);
+
+        b.dispose();
+        assertThat(hub.waiting()).isZero();
+    }
+
+    @Test
+    void concurrentRegisterAndDeliverNeverStrandsAWaiter() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            String jobId = "job-" + round;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<VideoStatusHub.Waiter>> registered = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                registered.add(pool.submit(() -> {
+                    start.await();
+                    return hub.register(jobId);
+                }));
+            }
+            Future<?> delivered = pool.submit(() -> {
+                start.await();
+                hub.publish(new VideoStatusEvent(jobId, "DONE", null, "DONE", null));
+                return null;
+            });
+
+            start.countDown();
+            delivered.get(5, TimeUnit.SECONDS);
+
+            // 알림을 받았거나, 받지 못했다면 아직 등록되어 있어야 한다 (떼어진 집합에 남으면 둘 다 아님)
+            int stillWaiting = 0;
+            List<VideoStatusHub.Waiter> waiters = new ArrayList<>();
+            for (Future<VideoStatusHub.Waiter> f : registered) {
+                VideoStatusHub.Waiter w = f.get(5, TimeUnit.SECONDS);
+                waiters.add(w);
+                if (!w.result().toFuture().isDone()) stillWaiting++;
+            }
+            assertThat(hub.waiting()).as("round %d", round).isEqualTo(stillWaiting);
+
+            waiters.forEach(VideoStatusHub.Waiter::dispose);
+            assertThat(hub.waiting()).isZero();
+        }
+    }
+}
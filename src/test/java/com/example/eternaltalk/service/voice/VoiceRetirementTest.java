@@ -0,0 +1,101 @@
+package com.example.eternaltalk.service.voice;
+
+import com.example.eternaltalk.client.ElevenLabsClient;
+import com.example.eternaltalk.common.JpaExecutor;
+import com.example.eternaltalk.domain.voice.RetiredVoice;
+import com.example.eternaltalk.repository.MemoryProfileRepository;
+import com.example.eternaltalk.repository.RetiredVoiceRepository;
+import com.example.eternaltalk.repository.VideoRequestRepository;
+import com.example.eternaltalk.repository.VoiceJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** VoiceRetirement: 진행 중인 작업이 쓰는 보이스는 남기고, 아무도 쓰지 않으면 벤더에서 삭제 (리포지토리 목) */
+class VoiceRetirementTest {
+
+    private final RetiredVoiceRepository repository = mock(RetiredVoiceRepository.class);
+    private final MemoryProfileRepository profiles = mock(MemoryProfileRepository.class);
+    private final VoiceJobRepository voiceJobs = mock(VoiceJobRepository.class);
+    private final VideoRequestRepository videoRequests = mock(VideoRequestRepository.class);
+    private final ElevenLabsClient eleven = mock(ElevenLabsClient.class);
+    private final VoiceRetirement retirement = new VoiceRetirement(repository, profiles, voiceJobs, videoRequests, eleven,
+            new JpaExecutor(new TransactionTemplate(mock(PlatformTransactionManager.class)), 1, 10),
+            Duration.ofMinutes(2));
+
+    @BeforeEach
+    void setUp() {
+        when(eleven.deleteVoice(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void voiceStillUsedByActiveJobIsKept() {
+        RetiredVoice old = retired("old-voice");
+        when(voiceJobs.existsByVoiceIdAndStatusIn("old-voice", VoiceJobService.ACTIVE)).thenReturn(true);
+
+        retirement.sweep();
+
+        verify(eleven, never()).deleteVoice(anyString());
+        verify(repository, never()).delete(old);
+    }
+
+    @Test
+    void voiceUsedByPendingVideoTtsIsKept() {
+        retired("old-voice");
+        when(videoRequests.existsByVoiceIdAndStatusAndStage("old-voice", "PENDING", "TTS")).thenReturn(true);
+
+        retirement.sweep();
+
+        verify(eleven, never()).deleteVoice(anyString());
+    }
+
+    @Test
+    void unusedVoiceIsDeletedAtVendorThenForgotten() {
+        RetiredVoice old = retired("old-voice");
+
+        retirement.sweep();
+
+        verify(eleven, timeout(1000)).deleteVoice("old-voice");
+        verify(repository, timeout(1000)).delete(old);
+    }
+
+    @Test
+    void voiceBackInAProfileIsOnlyForgotten() {
+        RetiredVoice adopted = retired("new-voice");
+        when(profiles.existsByVoiceCloneId("new-voice")).thenReturn(true);
+
+        retirement.sweep();
+
+        verify(repository).delete(adopted);
+        verify(eleven, never()).deleteVoice(anyString());
+    }
+
+    @Test
+    void failedVendorDeleteKeepsTheRowForTheNextSweep() {
+        RetiredVoice old = retired("old-voice");
+        when(eleven.deleteVoice("old-voice")).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        retirement.sweep();
+
+        verify(eleven, timeout(1000)).deleteVoice("old-voice");
+        verify(repository, after(200).never()).delete(old);
+    }
+
+    // ---- Helpers ----
+
+    private RetiredVoice retired(String voiceId) {
+        RetiredVoice rv = RetiredVoice.builder().id(1L).userId(7L).voiceId(voiceId)
+                .retiredAt(LocalDateTime.now().minusMinutes(5)).build();
+        when(repository.findTop50ByRetiredAtBeforeOrderByRetiredAt(any())).thenReturn(List.of(rv));
+        return rv;
+    }
+}
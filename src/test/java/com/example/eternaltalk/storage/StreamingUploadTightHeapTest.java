@@ -0,0 +1,123 @@
+package com.example.eternaltalk.storage;
+
+import com.example.eternaltalk.client.ElevenLabsClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 50MB 업로드가 힙에 통째로 올라가지 않는지 확인. 32MB 힙(tightHeapTest 태스크)에서 실행한다.
+ * 업로드 본문은 메모리에 없는 합성 스트림이므로 어디선가 전체를 byte[] 로 모으면 OOM 으로 실패한다.
+ */
+@Tag("tight-heap")
+class StreamingUploadTightHeapTest {
+
+    private static final long SIZE = DataSize.ofMegabytes(50).toBytes();
+    private static final InputStreamSource FILE = () -> new SyntheticStream(SIZE);
+
+    @Test
+    void photoUploadStreamsIntoS3() throws Exception {
+        AtomicLong received = new AtomicLong();
+        S3Client s3 = (S3Client) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{S3Client.class},
+                (proxy, method, args) -> {
+                    if ("putObject".equals(method.getName()) && args[1] instanceof RequestBody body) {
+                        try (InputStream in = body.contentStreamProvider().newStream()) {
+                            received.set(in.transferTo(OutputStream.nullOutputStream()));
+                        }
+                        return PutObjectResponse.builder().build();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        S3Presigner presigner = S3Presigner.builder()
+                .region(Region.AP_NORTHEAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+        S3Uploader uploader = new S3Uploader(s3, null, presigner);
+        ReflectionTestUtils.setField(uploader, "bucket", "test-bucket");
+
+        String url = uploader.upload("photo/1/large.jpg", FILE, SIZE, "image/jpeg");
+
+        assertThat(received.get()).isEqualTo(SIZE);
+        assertThat(url).contains("photo/1/large.jpg");
+    }
+
+    @Test
+    void voiceSampleStreamsIntoMultipartBody() {
+        AtomicLong written = new AtomicLong();
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, "/v1/voices/add");
+        // 기본 핸들러는 본문을 cache() 하므로 받는 대로 세고 바로 반환
+        request.setWriteHandler(body -> Flux.from(body)
+                .doOnNext(b -> {
+                    written.addAndGet(b.readableByteCount());
+                    DataBufferUtils.release(b);
+                })
+                .then());
+
+        BodyInserters.fromMultipartData(ElevenLabsClient.voiceForm(1L, FILE, SIZE, "sample.mp3"))
+                .insert(request, new InserterContext())
+                .block();
+
+        assertThat(written.get()).isGreaterThan(SIZE);
+    }
+
+    // ---- Helpers ----
+
+    private static final class InserterContext implements BodyInserter.Context {
+        private final List<HttpMessageWriter<?>> writers = ExchangeStrategies.withDefaults().messageWriters();
+
+        @Override public List<HttpMessageWriter<?>> messageWriters() { return writers; }
+        @Override public Optional<ServerHttpRequest> serverRequest() { return Optional.empty(); }
+        @Override public Map<String, Object> hints() { return Map.of(); }
+    }
+
+    /** 지정한 길이만큼 바이트를 만들어 내는 스트림 (메모리에 보관하지 않음) */
+    private static final class SyntheticStream extends InputStream {
+        private long remaining;
+
+        SyntheticStream(long size) { this.remaining = size; }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) return -1;
+            remaining--;
+            return (int) (remaining & 0x7f);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) return -1;
+            int n = (int) Math.min(len, remaining);
+            for (int i = 0; i < n; i++) b[off + i] = (byte) ((remaining - i) & 0x7f);
+            remaining -= n;
+            return n;
+        }
+    }
+}